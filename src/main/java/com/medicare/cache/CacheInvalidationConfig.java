@@ -0,0 +1,23 @@
+package com.medicare.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class CacheInvalidationConfig {
+    
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "postgres")
+    public CacheInvalidationTransport postgresInvalidationTransport(DataSource dataSource) {
+        return new PostgresInvalidationTransport(dataSource);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "in-process", matchIfMissing = true)
+    public CacheInvalidationTransport inProcessInvalidationTransport() {
+        return new InProcessInvalidationTransport(new InProcessInvalidationTransport.Bus());
+    }
+}
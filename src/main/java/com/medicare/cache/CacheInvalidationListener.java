@@ -0,0 +1,41 @@
+package com.medicare.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies invalidations from other nodes to the local near-caches.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationListener {
+    
+    private final CacheManager cacheManager;
+    private final CacheInvalidationTransport transport;
+    
+    @PostConstruct
+    void subscribe() {
+        transport.subscribe(this::onMessage);
+    }
+    
+    void onMessage(CacheInvalidationMessage message) {
+        if (CacheInvalidationMessage.ALL_CACHES.equals(message.cacheName())) {
+            cacheManager.getCacheNames().forEach(name -> invalidate(name, null));
+            return;
+        }
+        invalidate(message.cacheName(), message.key());
+    }
+    
+    private void invalidate(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache instanceof InvalidatingCache invalidatingCache) {
+            invalidatingCache.invalidateLocally(key);
+            log.debug("Invalidated {}:{} on request from another node", cacheName, key);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.medicare.cache;
+
+/**
+ * A cache entry (or whole cache, when key is null) that another node changed.
+ * Keys are carried with a one-letter type prefix so numeric ids round-trip as
+ * the Long/Integer the local cache was keyed with.
+ */
+public record CacheInvalidationMessage(String origin, String cacheName, Object key) {
+    
+    public static final String ALL_CACHES = "*";
+    
+    private static final char SEPARATOR = '|';
+    
+    public String encode() {
+        return origin + SEPARATOR + cacheName + SEPARATOR + encodeKey(key);
+    }
+    
+    public static CacheInvalidationMessage decode(String payload) {
+        int first = payload.indexOf(SEPARATOR);
+        int second = payload.indexOf(SEPARATOR, first + 1);
+        if (first < 0 || second < 0) {
+            throw new IllegalArgumentException("Malformed cache invalidation payload: " + payload);
+        }
+        return new CacheInvalidationMessage(
+                payload.substring(0, first),
+                payload.substring(first + 1, second),
+                decodeKey(payload.substring(second + 1)));
+    }
+    
+    private static String encodeKey(Object key) {
+        if (key == null) {
+            return "N";
+        }
+        if (key instanceof Long) {
+            return "L" + key;
+        }
+        if (key instanceof Integer) {
+            return "I" + key;
+        }
+        return "S" + key;
+    }
+    
+    private static Object decodeKey(String encoded) {
+        String value = encoded.substring(1);
+        return switch (encoded.charAt(0)) {
+            case 'N' -> null;
+            case 'L' -> Long.valueOf(value);
+            case 'I' -> Integer.valueOf(value);
+            default -> value;
+        };
+    }
+}
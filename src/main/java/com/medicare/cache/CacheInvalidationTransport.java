@@ -0,0 +1,16 @@
+package com.medicare.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries near-cache invalidations between nodes. Implementations must not hand a
+ * node back its own messages.
+ */
+public interface CacheInvalidationTransport {
+    
+    String getNodeId();
+    
+    void publish(CacheInvalidationMessage message);
+    
+    void subscribe(Consumer<CacheInvalidationMessage> listener);
+}
@@ -0,0 +1,57 @@
+package com.medicare.cache;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations to every transport sharing the same {@link Bus}. A
+ * single-node deployment gets its own bus, so publishing is a no-op; tests can
+ * share one bus between several application contexts to simulate a cluster.
+ */
+public class InProcessInvalidationTransport implements CacheInvalidationTransport {
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Bus bus;
+    private final List<Consumer<CacheInvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+    
+    public InProcessInvalidationTransport(Bus bus) {
+        this.bus = bus;
+        bus.join(this);
+    }
+    
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        bus.broadcast(message);
+    }
+    
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        listeners.add(listener);
+    }
+    
+    private void deliver(CacheInvalidationMessage message) {
+        if (!nodeId.equals(message.origin())) {
+            listeners.forEach(listener -> listener.accept(message));
+        }
+    }
+    
+    public static class Bus {
+        
+        private final List<InProcessInvalidationTransport> members = new CopyOnWriteArrayList<>();
+        
+        void join(InProcessInvalidationTransport transport) {
+            members.add(transport);
+        }
+        
+        void broadcast(CacheInvalidationMessage message) {
+            members.forEach(member -> member.deliver(message));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.medicare.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Local near-cache that tells other nodes to drop their copy whenever an entry is
+ * evicted or cleared here. Inside a transaction both the local eviction and the
+ * broadcast wait for commit, so neither this node nor a peer can reload the
+ * pre-commit row and keep it for the rest of its TTL.
+ *
+ * Puts stay local: a put is usually a read-through fill after a miss, and
+ * broadcasting it would make nodes keep evicting each other's fresh entries.
+ * Writes that change data must evict the entry instead of using @CachePut.
+ */
+public class InvalidatingCache implements Cache {
+    
+    private final Cache delegate;
+    private final Supplier<CacheInvalidationTransport> transport;
+    
+    public InvalidatingCache(Cache delegate, Supplier<CacheInvalidationTransport> transport) {
+        this.delegate = delegate;
+        this.transport = transport;
+    }
+    
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+    
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+    
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+    
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+    
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+    
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+    
+    @Override
+    public void evict(Object key) {
+        afterCommit(() -> {
+            delegate.evict(key);
+            broadcast(key);
+        });
+    }
+    
+    @Override
+    public void clear() {
+        afterCommit(() -> {
+            delegate.clear();
+            broadcast(null);
+        });
+    }
+    
+    /**
+     * Applies an invalidation received from another node without re-broadcasting it.
+     */
+    public void invalidateLocally(Object key) {
+        if (key == null) {
+            delegate.clear();
+        } else {
+            delegate.evict(key);
+        }
+    }
+    
+    public Cache getDelegate() {
+        return delegate;
+    }
+    
+    private void broadcast(Object key) {
+        CacheInvalidationTransport current = transport.get();
+        if (current == null) {
+            return;
+        }
+        current.publish(new CacheInvalidationMessage(current.getNodeId(), getName(), key));
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
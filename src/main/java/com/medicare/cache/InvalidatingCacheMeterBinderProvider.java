@@ -0,0 +1,25 @@
+package com.medicare.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Boot only recognises plain CaffeineCache instances; this lets the wrapped
+ * near-caches report the same cache.* meters.
+ */
+@Component
+public class InvalidatingCacheMeterBinderProvider implements CacheMeterBinderProvider<InvalidatingCache> {
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public MeterBinder getMeterBinder(InvalidatingCache cache, Iterable<Tag> tags) {
+        if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return null;
+        }
+        return new CaffeineCacheMetrics<>(
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache, cache.getName(), tags);
+    }
+}
@@ -0,0 +1,129 @@
+package com.medicare.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts invalidations with PostgreSQL NOTIFY and receives them on a dedicated
+ * LISTEN connection, so no extra infrastructure is needed. The listener holds one
+ * connection from the pool for the life of the node.
+ *
+ * Notifications sent while the listener is disconnected are lost, so after every
+ * reconnect all near-caches are cleared.
+ */
+@Slf4j
+public class PostgresInvalidationTransport implements CacheInvalidationTransport {
+    
+    static final String CHANNEL = "medicare_cache_invalidation";
+    
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Consumer<CacheInvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+    
+    private volatile boolean running;
+    private Thread listenerThread;
+    
+    public PostgresInvalidationTransport(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+    
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "CacheInvalidationListener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+    
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+    
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        try {
+            jdbcTemplate.queryForRowSet("SELECT pg_notify(?, ?)", CHANNEL, message.encode());
+        } catch (Exception e) {
+            // Other nodes fall back to TTL expiry for this entry
+            log.warn("Failed to publish cache invalidation for {}:{}", message.cacheName(), message.key(), e);
+        }
+    }
+    
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        listeners.add(listener);
+    }
+    
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for cache invalidations on channel {}", CHANNEL);
+                dispatch(new CacheInvalidationMessage(null, CacheInvalidationMessage.ALL_CACHES, null));
+                
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener disconnected, retrying in {} ms", RECONNECT_DELAY_MS, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void handle(String payload) {
+        try {
+            CacheInvalidationMessage message = CacheInvalidationMessage.decode(payload);
+            if (!nodeId.equals(message.origin())) {
+                dispatch(message);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ignoring cache invalidation payload: {}", payload, e);
+        }
+    }
+    
+    private void dispatch(CacheInvalidationMessage message) {
+        listeners.forEach(listener -> listener.accept(message));
+    }
+}
@@ -1,26 +1,87 @@
 package com.medicare.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medicare.cache.CacheInvalidationTransport;
+import com.medicare.cache.InvalidatingCache;
+import io.micrometer.core.instrument.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMetricsRegistrar;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import java.util.concurrent.TimeUnit;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
     
+    public static final List<String> CACHE_NAMES = List.of(
+            "doctors", "appointments", "users", "medicalRecords", "doctorFacets");
+    
+    // Matches the tag Spring Boot puts on the caches it binds at startup
+    private static final Tag CACHE_MANAGER_TAG = Tag.of("cache.manager", "cacheManager");
+    
+    @Value("${spring.cache.caffeine.spec:maximumSize=1000,expireAfterWrite=3600s}")
+    private String defaultSpec;
+    
+    @Value("${cache.invalidation.caches:doctors,users,medicalRecords,doctorFacets,appointments}")
+    private List<String> invalidatedCaches;
+    
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-                "doctors", "appointments", "users", "medicalRecords"
-        );
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(1, TimeUnit.HOURS)
-                .maximumSize(1000)
-                .recordStats());
+    public CacheEvictionTracker cacheEvictionTracker() {
+        return new CacheEvictionTracker();
+    }
+    
+    /**
+     * Each named cache takes its Caffeine spec from cache.{name}.spec, falling back to
+     * spring.cache.caffeine.spec. Caches created on demand use the default spec and
+     * are bound to Micrometer as they appear; Boot only binds the ones present at startup.
+     *
+     * Caches listed in cache.invalidation.caches act as near-caches: local writes and
+     * evictions are broadcast so other nodes drop their copy.
+     */
+    @Bean
+    public CacheManager cacheManager(Environment environment,
+                                     CacheEvictionTracker evictionTracker,
+                                     ObjectProvider<CacheMetricsRegistrar> metricsRegistrar,
+                                     ObjectProvider<CacheInvalidationTransport> invalidationTransport) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected com.github.benmanes.caffeine.cache.Cache<Object, Object> createNativeCaffeineCache(String name) {
+                return buildCache(name, defaultSpec, evictionTracker);
+            }
+            
+            @Override
+            protected Cache adaptCaffeineCache(String name,
+                                               com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                Cache adapted = super.adaptCaffeineCache(name, cache);
+                if (invalidatedCaches.contains(name)) {
+                    return new InvalidatingCache(adapted, invalidationTransport::getIfAvailable);
+                }
+                if (!CACHE_NAMES.contains(name)) {
+                    metricsRegistrar.ifAvailable(registrar -> registrar.bindCacheToRegistry(adapted, CACHE_MANAGER_TAG));
+                }
+                return adapted;
+            }
+        };
+        for (String name : CACHE_NAMES) {
+            String spec = environment.getProperty("cache." + name + ".spec", defaultSpec);
+            cacheManager.registerCustomCache(name, buildCache(name, spec, evictionTracker));
+        }
         return cacheManager;
     }
+    
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> buildCache(
+            String name, String spec, CacheEvictionTracker evictionTracker) {
+        return Caffeine.from(spec)
+                .recordStats()
+                .evictionListener((key, value, cause) -> evictionTracker.record(name, cause))
+                .build();
+    }
 }
@@ -0,0 +1,42 @@
+package com.medicare.config;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts Caffeine evictions per cache and cause (SIZE, EXPIRED, COLLECTED), which
+ * the stats recorder only reports as a single total.
+ */
+public class CacheEvictionTracker {
+    
+    private final Map<String, Map<RemovalCause, LongAdder>> evictions = new ConcurrentHashMap<>();
+    
+    public void record(String cacheName, RemovalCause cause) {
+        evictions.computeIfAbsent(cacheName, name -> {
+                    Map<RemovalCause, LongAdder> byCause = new EnumMap<>(RemovalCause.class);
+                    for (RemovalCause c : RemovalCause.values()) {
+                        byCause.put(c, new LongAdder());
+                    }
+                    return byCause;
+                })
+                .get(cause)
+                .increment();
+    }
+    
+    public Map<String, Long> getEvictions(String cacheName) {
+        Map<String, Long> result = new ConcurrentHashMap<>();
+        Map<RemovalCause, LongAdder> byCause = evictions.get(cacheName);
+        if (byCause != null) {
+            byCause.forEach((cause, count) -> {
+                if (cause.wasEvicted()) {
+                    result.put(cause.name(), count.sum());
+                }
+            });
+        }
+        return result;
+    }
+}
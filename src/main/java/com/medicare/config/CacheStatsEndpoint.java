@@ -0,0 +1,70 @@
+package com.medicare.config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.medicare.cache.InvalidatingCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * /actuator/cachestats: size, hit rate and eviction breakdown per cache, for sizing
+ * caches from production traffic.
+ */
+@Component
+@Endpoint(id = "cachestats")
+@RequiredArgsConstructor
+public class CacheStatsEndpoint {
+    
+    private final CacheManager cacheManager;
+    private final CacheEvictionTracker evictionTracker;
+    
+    @ReadOperation
+    public Map<String, Object> cacheStats() {
+        Map<String, Object> result = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Map<String, Object> stats = describe(name);
+            if (stats != null) {
+                result.put(name, stats);
+            }
+        }
+        return result;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> cache(@Selector String name) {
+        return describe(name);
+    }
+    
+    private Map<String, Object> describe(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache instanceof InvalidatingCache invalidatingCache) {
+            cache = invalidatingCache.getDelegate();
+        }
+        if (!(cache instanceof CaffeineCache caffeineCache)) {
+            return null;
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+        CacheStats stats = nativeCache.stats();
+        
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", nativeCache.estimatedSize());
+        description.put("requestCount", stats.requestCount());
+        description.put("hitCount", stats.hitCount());
+        description.put("missCount", stats.missCount());
+        description.put("hitRate", stats.hitRate());
+        description.put("loadCount", stats.loadCount());
+        description.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        description.put("evictionCount", stats.evictionCount());
+        description.put("evictionsByCause", evictionTracker.getEvictions(name));
+        return description;
+    }
+}
@@ -1,8 +1,11 @@
 package com.medicare.config;
 
+import com.medicare.filter.ConcurrencyLimitFilter;
 import com.medicare.filter.JwtAuthenticationFilter;
+import com.medicare.filter.RateLimitFilter;
 import com.medicare.security.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,6 +30,11 @@ public class SecurityConfig {
     
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
     
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -39,8 +47,11 @@ public class SecurityConfig {
                     "/v3/api-docs/**",
                     "/swagger-ui.html",
                     "/api-docs/**",
-                    "/actuator/**"
+                    "/actuator/health",
+                    "/actuator/health/**",
+                    "/actuator/info"
                 ).permitAll()
+                .requestMatchers("/actuator/**").hasAuthority("ADMIN")
                 .requestMatchers("/api/admin/**").hasAuthority("ADMIN")
                 .requestMatchers("/api/doctors/profile/**").hasAnyAuthority("DOCTOR", "ADMIN")
                 .requestMatchers("/api/patients/**").hasAnyAuthority("PATIENT", "ADMIN")
@@ -50,7 +61,9 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authenticationProvider(authenticationProvider())
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class)
+            .addFilterBefore(concurrencyLimitFilter, RateLimitFilter.class);
             
         return http.build();
     }
@@ -71,6 +84,7 @@ public class SecurityConfig {
     
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // Hashes below this strength are upgraded on the next successful login
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 }
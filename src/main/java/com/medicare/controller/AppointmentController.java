@@ -4,6 +4,7 @@ import com.medicare.dto.ApiResponse;
 import com.medicare.dto.AppointmentDTO.*;
 import com.medicare.dto.PageResponse;
 import com.medicare.service.AppointmentService;
+import com.medicare.service.BookingAdmissionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
 public class AppointmentController {
     
     private final AppointmentService appointmentService;
+    private final BookingAdmissionService bookingAdmissionService;
     
     @PostMapping
     @PreAuthorize("hasAuthority('PATIENT')")
@@ -33,7 +35,7 @@ public class AppointmentController {
         return ResponseEntity
                 .status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Appointment booked successfully", 
-                    appointmentService.bookAppointment(request, authentication.getName())));
+                    bookingAdmissionService.book(request, authentication.getName())));
     }
     
     @GetMapping
@@ -42,15 +44,19 @@ public class AppointmentController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             Authentication authentication) {
         return ResponseEntity.ok(ApiResponse.success(
-                appointmentService.getAppointments(page, size, status, authentication)));
+                appointmentService.getAppointments(page, size, status, cursor, includeTotal, authentication)));
     }
     
     @GetMapping("/{id}")
     @Operation(summary = "Get appointment by ID")
-    public ResponseEntity<ApiResponse<Response>> getAppointmentById(@PathVariable Long id) {
-        return ResponseEntity.ok(ApiResponse.success(appointmentService.getAppointmentById(id)));
+    public ResponseEntity<ApiResponse<Response>> getAppointmentById(
+            @PathVariable Long id,
+            Authentication authentication) {
+        return ResponseEntity.ok(ApiResponse.success(appointmentService.getAppointmentById(id, authentication)));
     }
     
     @PutMapping("/{id}")
@@ -77,8 +83,10 @@ public class AppointmentController {
     public ResponseEntity<ApiResponse<PageResponse<Response>>> getMyAppointments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             Authentication authentication) {
         return ResponseEntity.ok(ApiResponse.success(
-                appointmentService.getUserAppointments(page, size, authentication.getName())));
+                appointmentService.getUserAppointments(page, size, cursor, includeTotal, authentication.getName())));
     }
 }
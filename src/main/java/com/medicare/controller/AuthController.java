@@ -35,7 +35,7 @@ public class AuthController {
     
     @PostMapping("/refresh")
     @Operation(summary = "Refresh access token")
-    public ResponseEntity<ApiResponse<AuthResponse>> refresh Token(@Valid @RequestBody RefreshTokenRequest request) {
+    public ResponseEntity<ApiResponse<AuthResponse>> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
         return ResponseEntity.ok(ApiResponse.success("Token refreshed", authService.refreshToken(request)));
     }
 }
@@ -9,12 +9,16 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/doctors")
@@ -25,16 +29,35 @@ public class DoctorController {
     private final DoctorService doctorService;
     
     @GetMapping
-    @Operation(summary = "Get all doctors (paginated, filterable)")
+    @Operation(summary = "Get all doctors (paginated, filterable, with facet counts)")
     public ResponseEntity<ApiResponse<PageResponse<Response>>> getAllDoctors(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String specialization,
-            @RequestParam(required = false) BigDecimal minFee,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            SearchFilter filter) {
+        return ResponseEntity.ok(ApiResponse.success(
+                doctorService.getAllDoctors(page, size, cursor, includeTotal, filter)));
+    }
+    
+    @GetMapping("/suggest")
+    @Operation(summary = "Type-ahead suggestions for doctors, specializations and qualifications")
+    public ResponseEntity<ApiResponse<List<Suggestion>>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(doctorService.getSuggestions(q, limit)));
+    }
+    
+    @GetMapping("/next-available")
+    @Operation(summary = "Earliest free slots across all doctors of a specialization")
+    public ResponseEntity<ApiResponse<List<NextSlot>>> getNextAvailableSlots(
+            @RequestParam String specialization,
             @RequestParam(required = false) BigDecimal maxFee,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "10") int limit) {
         return ResponseEntity.ok(ApiResponse.success(
-                doctorService.getAllDoctors(page, size, specialization, minFee, maxFee, search)));
+                doctorService.getNextAvailableSlots(specialization, maxFee, minRating, from, limit)));
     }
     
     @GetMapping("/{id}")
@@ -76,9 +99,19 @@ public class DoctorController {
                 .body(ApiResponse.success("Schedule added", doctorService.addSchedule(id, request)));
     }
     
+    @GetMapping("/{id}/availability")
+    @Operation(summary = "Get a doctor's free slots per day (defaults to the next 7 days)")
+    public ResponseEntity<ApiResponse<List<DayAvailability>>> getAvailability(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(ApiResponse.success(doctorService.getAvailability(id, from, to)));
+    }
+    
     @GetMapping("/top-rated")
     @Operation(summary = "Get top-rated doctors")
-    public ResponseEntity<ApiResponse<?>> getTopRatedDoctors() {
-        return ResponseEntity.ok(ApiResponse.success(doctorService.getTopRatedDoctors()));
+    public ResponseEntity<ApiResponse<?>> getTopRatedDoctors(
+            @RequestParam(required = false) String specialization) {
+        return ResponseEntity.ok(ApiResponse.success(doctorService.getTopRatedDoctors(specialization)));
     }
 }
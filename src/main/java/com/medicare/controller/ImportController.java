@@ -0,0 +1,40 @@
+package com.medicare.controller;
+
+import com.medicare.dto.ApiResponse;
+import com.medicare.dto.ImportDTO;
+import com.medicare.service.BulkImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/import")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "Bearer Authentication")
+@PreAuthorize("hasAuthority('ADMIN')")
+@Tag(name = "Import", description = "Bulk import for onboarding clinics (Admin only)")
+public class ImportController {
+    
+    private final BulkImportService bulkImportService;
+    
+    @PostMapping("/appointments")
+    @Operation(summary = "Bulk import appointments; invalid rows are reported and skipped")
+    public ResponseEntity<ApiResponse<ImportDTO.Result>> importAppointments(
+            @Valid @RequestBody ImportDTO.AppointmentImportRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Appointments imported",
+                bulkImportService.importAppointments(request.getRows())));
+    }
+    
+    @PostMapping("/schedules")
+    @Operation(summary = "Bulk import doctor schedules; existing days are replaced")
+    public ResponseEntity<ApiResponse<ImportDTO.Result>> importSchedules(
+            @Valid @RequestBody ImportDTO.ScheduleImportRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Schedules imported",
+                bulkImportService.importSchedules(request.getRows())));
+    }
+}
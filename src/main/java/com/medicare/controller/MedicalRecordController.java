@@ -47,9 +47,11 @@ public class MedicalRecordController {
     public ResponseEntity<ApiResponse<PageResponse<MedicalRecordDTO.Response>>> getPatientRecords(
             @PathVariable Long patientId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         return ResponseEntity.ok(ApiResponse.success(
-                medicalRecordService.getPatientMedicalRecords(patientId, page, size)));
+                medicalRecordService.getPatientMedicalRecords(patientId, page, size, cursor, includeTotal)));
     }
     
     @PostMapping("/{id}/upload")
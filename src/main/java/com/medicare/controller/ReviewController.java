@@ -0,0 +1,47 @@
+package com.medicare.controller;
+
+import com.medicare.dto.ApiResponse;
+import com.medicare.dto.PageResponse;
+import com.medicare.dto.ReviewDTO;
+import com.medicare.service.ReviewService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reviews")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "Bearer Authentication")
+@Tag(name = "Reviews", description = "Doctor review endpoints")
+public class ReviewController {
+    
+    private final ReviewService reviewService;
+    
+    @PostMapping
+    @PreAuthorize("hasAuthority('PATIENT')")
+    @Operation(summary = "Review a doctor")
+    public ResponseEntity<ApiResponse<ReviewDTO.Response>> submitReview(
+            @Valid @RequestBody ReviewDTO.CreateRequest request,
+            Authentication authentication) {
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Review submitted",
+                    reviewService.submitReview(request, authentication.getName())));
+    }
+    
+    @GetMapping("/doctor/{doctorId}")
+    @Operation(summary = "Get a doctor's reviews")
+    public ResponseEntity<ApiResponse<PageResponse<ReviewDTO.Response>>> getDoctorReviews(
+            @PathVariable Long doctorId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(ApiResponse.success(reviewService.getDoctorReviews(doctorId, page, size)));
+    }
+}
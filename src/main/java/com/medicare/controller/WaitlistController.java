@@ -0,0 +1,56 @@
+package com.medicare.controller;
+
+import com.medicare.dto.ApiResponse;
+import com.medicare.dto.WaitlistDTO;
+import com.medicare.service.WaitlistService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "Bearer Authentication")
+@Tag(name = "Waitlist", description = "Doctor waitlist endpoints")
+public class WaitlistController {
+    
+    private final WaitlistService waitlistService;
+    
+    @PostMapping
+    @PreAuthorize("hasAuthority('PATIENT')")
+    @Operation(summary = "Join a doctor's waitlist; a freed slot in the window is booked automatically")
+    public ResponseEntity<ApiResponse<WaitlistDTO.Response>> join(
+            @Valid @RequestBody WaitlistDTO.JoinRequest request,
+            Authentication authentication) {
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Added to waitlist",
+                    waitlistService.join(request, authentication.getName())));
+    }
+    
+    @GetMapping("/my-entries")
+    @PreAuthorize("hasAuthority('PATIENT')")
+    @Operation(summary = "Get current patient's waitlist entries")
+    public ResponseEntity<ApiResponse<List<WaitlistDTO.Response>>> getMyEntries(Authentication authentication) {
+        return ResponseEntity.ok(ApiResponse.success(waitlistService.getMyEntries(authentication.getName())));
+    }
+    
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAuthority('PATIENT')")
+    @Operation(summary = "Leave a waitlist")
+    public ResponseEntity<ApiResponse<Void>> withdraw(
+            @PathVariable Long id,
+            Authentication authentication) {
+        waitlistService.withdraw(id, authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success("Removed from waitlist", null));
+    }
+}
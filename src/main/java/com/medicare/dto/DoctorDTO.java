@@ -9,6 +9,8 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -106,4 +108,53 @@ public class DoctorDTO {
         private Integer slotDurationMinutes;
         private Boolean isAvailable;
     }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Suggestion {
+        private String type;
+        private Long id;
+        private String value;
+        private String label;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SearchFilter {
+        private String specialization;
+        private BigDecimal minFee;
+        private BigDecimal maxFee;
+        private Boolean available;
+        private Double minRating;
+        private Integer minExperience;
+        private String search;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class DayAvailability {
+        private LocalDate date;
+        private Integer slotDurationMinutes;
+        private List<LocalTime> freeSlots;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class NextSlot {
+        private Long doctorId;
+        private String doctorName;
+        private Specialization specialization;
+        private BigDecimal consultationFee;
+        private Double rating;
+        private LocalDateTime slot;
+        private Integer slotDurationMinutes;
+    }
 }
@@ -0,0 +1,119 @@
+package com.medicare.dto;
+
+import com.medicare.model.enums.AppointmentStatus;
+import com.medicare.model.enums.AppointmentType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+public class ImportDTO {
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class AppointmentImportRequest {
+        @NotEmpty(message = "At least one row is required")
+        private List<@Valid AppointmentRow> rows;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class AppointmentRow {
+        @NotBlank(message = "Patient email is required")
+        @Email(message = "Invalid patient email")
+        private String patientEmail;
+        
+        @NotNull(message = "Doctor ID is required")
+        private Long doctorId;
+        
+        @NotNull(message = "Appointment date and time is required")
+        private LocalDateTime appointmentDateTime;
+        
+        @NotNull(message = "Appointment type is required")
+        private AppointmentType appointmentType;
+        
+        // Defaults to SCHEDULED
+        private AppointmentStatus status;
+        
+        @Size(max = 500, message = "Symptoms cannot exceed 500 characters")
+        private String symptoms;
+        
+        @Size(max = 1000, message = "Notes cannot exceed 1000 characters")
+        private String notes;
+        
+        @Size(max = 2000, message = "Prescription cannot exceed 2000 characters")
+        private String prescription;
+        
+        // Defaults to the doctor's consultation fee
+        @DecimalMin(value = "0.0", message = "Amount cannot be negative")
+        private BigDecimal amount;
+        
+        private Boolean isPaid;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ScheduleImportRequest {
+        @NotEmpty(message = "At least one row is required")
+        private List<@Valid ScheduleRow> rows;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ScheduleRow {
+        @NotNull(message = "Doctor ID is required")
+        private Long doctorId;
+        
+        @NotNull(message = "Day of week is required")
+        private DayOfWeek dayOfWeek;
+        
+        @NotNull(message = "Start time is required")
+        private LocalTime startTime;
+        
+        @NotNull(message = "End time is required")
+        private LocalTime endTime;
+        
+        @NotNull(message = "Slot duration is required")
+        @Min(value = 15, message = "Slot duration must be at least 15 minutes")
+        private Integer slotDurationMinutes;
+        
+        // Defaults to true
+        private Boolean isAvailable;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Result {
+        private int received;
+        private int inserted;
+        private int updated;
+        private List<RowError> rejected;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RowError {
+        private int row;
+        private String reason;
+    }
+}
@@ -1,11 +1,14 @@
 package com.medicare.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Data
 @NoArgsConstructor
@@ -15,8 +18,36 @@ public class PageResponse<T> {
     private List<T> content;
     private int pageNumber;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    // Only filled in when the caller asks for the exact total (or it comes for free)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalPages;
     private boolean last;
     private boolean first;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Map<String, Long>> facets;
+    
+    /**
+     * A keyset page built from up to size + 1 rows; the extra row only signals that
+     * there is more and is neither mapped nor returned.
+     */
+    public static <E, T> PageResponse<T> ofCursor(List<E> rows, int size, boolean first,
+                                                  Function<List<E>, List<T>> mapper,
+                                                  Function<E, String> cursorOf,
+                                                  Long totalElements) {
+        boolean hasMore = rows.size() > size;
+        List<E> pageRows = hasMore ? rows.subList(0, size) : rows;
+        return PageResponse.<T>builder()
+                .content(mapper.apply(pageRows))
+                .pageSize(size)
+                .first(first)
+                .last(!hasMore)
+                .nextCursor(hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null)
+                .totalElements(totalElements)
+                .totalPages(totalElements != null && size > 0 ? (int) Math.ceil((double) totalElements / size) : null)
+                .build();
+    }
 }
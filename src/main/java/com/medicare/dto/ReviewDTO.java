@@ -0,0 +1,48 @@
+package com.medicare.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+public class ReviewDTO {
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class CreateRequest {
+        @NotNull(message = "Doctor ID is required")
+        private Long doctorId;
+        
+        @NotNull(message = "Rating is required")
+        @Min(value = 1, message = "Rating must be between 1 and 5")
+        @Max(value = 5, message = "Rating must be between 1 and 5")
+        private Integer rating;
+        
+        @Size(max = 1000, message = "Comment cannot exceed 1000 characters")
+        private String comment;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private Long id;
+        private Long doctorId;
+        private Long patientId;
+        private String patientName;
+        private Integer rating;
+        private String comment;
+        private Double doctorRating;
+        private Integer doctorTotalRatings;
+        private LocalDateTime createdAt;
+    }
+}
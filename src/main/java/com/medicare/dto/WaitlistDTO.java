@@ -0,0 +1,56 @@
+package com.medicare.dto;
+
+import com.medicare.model.enums.AppointmentType;
+import com.medicare.model.enums.WaitlistStatus;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+public class WaitlistDTO {
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class JoinRequest {
+        @NotNull(message = "Doctor ID is required")
+        private Long doctorId;
+        
+        @NotNull(message = "Window start is required")
+        private LocalDateTime windowStart;
+        
+        @NotNull(message = "Window end is required")
+        @Future(message = "Window end must be in the future")
+        private LocalDateTime windowEnd;
+        
+        @NotNull(message = "Appointment type is required")
+        private AppointmentType appointmentType;
+        
+        @NotBlank(message = "Symptoms are required")
+        @Size(max = 500, message = "Symptoms cannot exceed 500 characters")
+        private String symptoms;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private Long id;
+        private Long doctorId;
+        private String doctorName;
+        private LocalDateTime windowStart;
+        private LocalDateTime windowEnd;
+        private AppointmentType appointmentType;
+        private WaitlistStatus status;
+        private Long appointmentId;
+        private LocalDateTime createdAt;
+    }
+}
@@ -0,0 +1,22 @@
+package com.medicare.exception;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class SlotUnavailableException extends RuntimeException {
+    
+    private final List<LocalDateTime> alternatives;
+    
+    public SlotUnavailableException(String message) {
+        this(message, List.of());
+    }
+    
+    public SlotUnavailableException(String message, List<LocalDateTime> alternatives) {
+        super(message);
+        this.alternatives = alternatives;
+    }
+    
+    public List<LocalDateTime> getAlternatives() {
+        return alternatives;
+    }
+}
@@ -0,0 +1,125 @@
+package com.medicare.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicare.dto.ApiResponse;
+import com.medicare.util.GradientLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sheds load once in-flight requests for a route group exceed its adaptive limit.
+ * Each group (auth, appointments, doctors, analytics, medical-records) has its own
+ * {@link GradientLimiter}, so a slow analytics query cannot starve doctor lookups.
+ * Overflow is rejected immediately with 503 instead of queueing in Tomcat.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    
+    private static final List<String> ROUTE_GROUPS = List.of(
+            "auth", "appointments", "doctors", "analytics", "medical-records");
+    
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${concurrency.limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${concurrency.limit.initial:50}")
+    private int initialLimit;
+    
+    @Value("${concurrency.limit.min:5}")
+    private int minLimit;
+    
+    @Value("${concurrency.limit.max:500}")
+    private int maxLimit;
+    
+    @Value("${concurrency.limit.tolerance:1.5}")
+    private double tolerance;
+    
+    @Value("${concurrency.limit.smoothing:0.2}")
+    private double smoothing;
+    
+    private final Map<String, GroupLimiter> limiters = new ConcurrentHashMap<>();
+    
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        
+        String group = routeGroup(request.getRequestURI());
+        GroupLimiter groupLimiter = limiters.computeIfAbsent(group, this::createGroupLimiter);
+        
+        if (!groupLimiter.limiter().tryAcquire()) {
+            groupLimiter.rejected().increment();
+            log.warn("Concurrency limit {} reached for route group: {}", groupLimiter.limiter().getLimit(), group);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiResponse.error("Server is busy. Please try again shortly."));
+            return;
+        }
+        
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            groupLimiter.limiter().release(System.nanoTime() - start);
+        }
+    }
+    
+    private String routeGroup(String uri) {
+        for (String group : ROUTE_GROUPS) {
+            if (uri.startsWith("/api/" + group)) {
+                return group;
+            }
+        }
+        return "default";
+    }
+    
+    private GroupLimiter createGroupLimiter(String group) {
+        GradientLimiter limiter = new GradientLimiter(initialLimit, minLimit, maxLimit, tolerance, smoothing);
+        Gauge.builder("concurrency.limit", limiter, GradientLimiter::getLimit)
+                .tag("group", group)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.inflight", limiter, GradientLimiter::getInFlight)
+                .tag("group", group)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("concurrency.rejected")
+                .tag("group", group)
+                .description("Requests shed by the concurrency limiter")
+                .register(meterRegistry);
+        return new GroupLimiter(limiter, rejected);
+    }
+    
+    private record GroupLimiter(GradientLimiter limiter, Counter rejected) {
+    }
+}
@@ -1,21 +1,27 @@
 package com.medicare.filter;
 
+import com.medicare.model.enums.UserRole;
 import com.medicare.security.CustomUserDetailsService;
+import com.medicare.security.SecurityEpochService;
 import com.medicare.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 @Component
 @RequiredArgsConstructor
@@ -23,6 +29,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final SecurityEpochService securityEpochService;
+    
+    @Value("${jwt.claims-principal.enabled:true}")
+    private boolean claimsPrincipalEnabled;
     
     @Override
     protected void doFilterInternal(
@@ -44,9 +54,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         userEmail = jwtUtil.extractUsername(jwt);
         
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+            UserDetails userDetails = claimsPrincipalEnabled && jwtUtil.hasPrincipalClaims(jwt)
+                    ? buildPrincipalFromClaims(jwt, userEmail)
+                    : userDetailsService.loadUserByUsername(userEmail);
             
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (userDetails != null && jwtUtil.validateToken(jwt, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -58,4 +70,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+    
+    /**
+     * Builds the principal from the token alone. Returns null when the account's
+     * security epoch has moved on (deactivated, role or password changed).
+     */
+    private UserDetails buildPrincipalFromClaims(String jwt, String userEmail) {
+        if (!securityEpochService.isCurrent(jwtUtil.extractUserId(jwt), jwtUtil.extractSecurityEpoch(jwt))) {
+            return null;
+        }
+        UserRole role = jwtUtil.extractRole(jwt);
+        return new User(
+                userEmail,
+                "",
+                Collections.singletonList(new SimpleGrantedAuthority(role.name()))
+        );
+    }
 }
@@ -0,0 +1,121 @@
+package com.medicare.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicare.dto.ApiResponse;
+import com.medicare.service.RateLimiterService;
+import com.medicare.service.RateLimiterService.RateLimitResult;
+import com.medicare.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces rate limits ahead of authentication so abusive clients are shed before
+ * they reach BCrypt or the database. Auth endpoints are limited per client IP;
+ * everything else uses the caller's role tier, keyed by user id when the bearer
+ * token carries one and by IP otherwise.
+ *
+ * The client IP is the request's remote address. Behind a load balancer that is the
+ * balancer itself unless server.forward-headers-strategy resolves the original
+ * client from X-Forwarded-For; otherwise every caller would share one bucket.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private final RateLimiterService rateLimiterService;
+    private final JwtUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${rate.limit.enabled:true}")
+    private boolean enabled;
+    
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        
+        String tier;
+        String key;
+        
+        if (request.getRequestURI().startsWith("/api/auth/")) {
+            tier = RateLimiterService.AUTH_TIER;
+            key = request.getRemoteAddr();
+        } else {
+            String[] principal = resolvePrincipal(request);
+            tier = principal != null ? principal[0] : RateLimiterService.ANONYMOUS_TIER;
+            key = principal != null ? principal[1] : request.getRemoteAddr();
+        }
+        
+        RateLimitResult result = rateLimiterService.tryConsume(tier, key);
+        response.setHeader("X-RateLimit-Limit", String.valueOf(rateLimiterService.getCapacity(tier)));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(result.remainingTokens()));
+        
+        if (!result.allowed()) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(result.nanosToWaitForRefill()));
+            // Counted rather than logged at warn, so a flood of rejections cannot flood the log too
+            Counter.builder("rate.limit.rejected")
+                    .tag("tier", tier)
+                    .description("Requests rejected by the rate limiter")
+                    .register(meterRegistry)
+                    .increment();
+            log.debug("Rate limit exceeded for {} key: {}", tier, key);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(retryAfter));
+            response.setHeader("X-RateLimit-Reset", String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiResponse.error("Too many requests. Please try again later."));
+            return;
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    /**
+     * Returns {tier, key} from the bearer token claims, or null for anonymous callers
+     * and tokens that predate the role/user-id claims.
+     */
+    private String[] resolvePrincipal(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        String jwt = authHeader.substring(7);
+        try {
+            if (!jwtUtil.hasPrincipalClaims(jwt)) {
+                return null;
+            }
+            return new String[]{
+                    jwtUtil.extractRole(jwt).name().toLowerCase(),
+                    "user-" + jwtUtil.extractUserId(jwt)
+            };
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -9,7 +9,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_patient_time", columnList = "patient_id, appointmentDateTime, id"),
+        @Index(name = "idx_appointments_doctor_time", columnList = "doctor_id, appointmentDateTime, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_appointments_doctor_slot", columnNames = {"doctor_id", "bookedSlot"})
+})
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -28,6 +33,11 @@ public class Appointment extends BaseEntity {
     @Column(nullable = false)
     private LocalDateTime appointmentDateTime;
     
+    // Equals appointmentDateTime while the appointment holds its slot and is null once
+    // cancelled, so the unique (doctor_id, bookedSlot) constraint allows one live booking
+    // per slot while cancelled rows can pile up
+    private LocalDateTime bookedSlot;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private AppointmentType appointmentType;
@@ -49,6 +59,7 @@ public class Appointment extends BaseEntity {
     private BigDecimal amount;
     
     @Column(nullable = false)
+    @Builder.Default
     private Boolean isPaid = false;
     
     private String paymentId;
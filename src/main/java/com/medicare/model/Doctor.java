@@ -3,13 +3,18 @@ package com.medicare.model;
 import com.medicare.model.enums.Specialization;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "doctors")
+@Table(name = "doctors", indexes = {
+        @Index(name = "idx_doctors_listing", columnList = "isActive, specialization, isAvailable, rating")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctor")
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -38,20 +43,32 @@ public class Doctor extends BaseEntity {
     private String bio;
     
     @Column(nullable = false)
+    @Builder.Default
     private Boolean isAvailable = true;
     
     @Column(nullable = false)
+    @Builder.Default
     private Double rating = 0.0;
     
     @Column(nullable = false)
+    @Builder.Default
     private Integer totalRatings = 0;
     
+    // Running sum of review ratings, so rating = ratingSum / totalRatings without an AVG
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long ratingSum = 0L;
+    
     @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Builder.Default
     private Set<Appointment> appointments = new HashSet<>();
     
     @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctorSchedules")
+    @Builder.Default
     private Set<DoctorSchedule> schedules = new HashSet<>();
     
     @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Builder.Default
     private Set<Review> reviews = new HashSet<>();
 }
@@ -2,12 +2,15 @@ package com.medicare.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
 
 @Entity
 @Table(name = "doctor_schedules")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctorSchedule")
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -30,8 +33,10 @@ public class DoctorSchedule extends BaseEntity {
     private LocalTime endTime;
     
     @Column(nullable = false)
+    @Builder.Default
     private Integer slotDurationMinutes = 30;
     
     @Column(nullable = false)
+    @Builder.Default
     private Boolean isAvailable = true;
 }
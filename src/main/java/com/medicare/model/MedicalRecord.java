@@ -7,7 +7,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "medical_records")
+@Table(name = "medical_records", indexes = {
+        @Index(name = "idx_medical_records_patient_created", columnList = "patient_id, createdAt, id")
+})
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -38,6 +40,7 @@ public class MedicalRecord extends BaseEntity {
     @ElementCollection
     @CollectionTable(name = "medical_record_files", joinColumns = @JoinColumn(name = "record_id"))
     @Column(name = "file_path")
+    @Builder.Default
     private List<String> attachments = new ArrayList<>();
     
     @Column(length = 500)
@@ -0,0 +1,27 @@
+package com.medicare.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Shared token-bucket state for the cluster-wide rate limiter. Tokens refill in
+ * whole intervals starting at windowStart (epoch millis).
+ */
+@Entity
+@Table(name = "rate_limit_buckets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateLimitBucket {
+    
+    @Id
+    @Column(length = 255)
+    private String bucketKey;
+    
+    @Column(nullable = false)
+    private Long availableTokens;
+    
+    @Column(nullable = false)
+    private Long windowStart;
+}
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reviews_doctor_patient", columnNames = {"doctor_id", "patient_id"})
+})
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
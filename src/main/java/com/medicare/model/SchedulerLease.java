@@ -0,0 +1,27 @@
+package com.medicare.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Time-limited ownership of a named piece of scheduled work, so that only one node
+ * in a cluster does it. expiresAt is epoch millis.
+ */
+@Entity
+@Table(name = "scheduler_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SchedulerLease {
+    
+    @Id
+    @Column(length = 255)
+    private String name;
+    
+    @Column(nullable = false)
+    private String owner;
+    
+    @Column(nullable = false)
+    private Long expiresAt;
+}
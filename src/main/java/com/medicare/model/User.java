@@ -3,12 +3,15 @@ package com.medicare.model;
 import com.medicare.model.enums.UserRole;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -35,16 +38,25 @@ public class User extends BaseEntity {
     private UserRole role;
     
     @Column(nullable = false)
+    @Builder.Default
     private Boolean emailVerified = false;
     
     private String profilePicture;
     
+    // Bumped whenever the account is deactivated or its role/credentials change,
+    // invalidating every token minted under the previous value
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long securityEpoch = 0L;
+    
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Builder.Default
     private Set<Appointment> patientAppointments = new HashSet<>();
     
     @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Doctor doctor;
     
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Builder.Default
     private Set<MedicalRecord> medicalRecords = new HashSet<>();
 }
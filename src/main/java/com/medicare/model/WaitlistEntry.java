@@ -0,0 +1,50 @@
+package com.medicare.model;
+
+import com.medicare.model.enums.AppointmentType;
+import com.medicare.model.enums.WaitlistStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+        @Index(name = "idx_waitlist_status_window", columnList = "status, windowEnd"),
+        @Index(name = "idx_waitlist_patient", columnList = "patient_id, status")
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WaitlistEntry extends BaseEntity {
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private User patient;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id", nullable = false)
+    private Doctor doctor;
+    
+    // Any slot starting within [windowStart, windowEnd) is acceptable to the patient
+    @Column(nullable = false)
+    private LocalDateTime windowStart;
+    
+    @Column(nullable = false)
+    private LocalDateTime windowEnd;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AppointmentType appointmentType;
+    
+    @Column(length = 500)
+    private String symptoms;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WaitlistStatus status;
+    
+    // Set once a freed slot has been booked for the patient
+    private Long appointmentId;
+}
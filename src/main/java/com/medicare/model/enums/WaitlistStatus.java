@@ -0,0 +1,9 @@
+package com.medicare.model.enums;
+
+public enum WaitlistStatus {
+    WAITING,
+    BOOKING,
+    BOOKED,
+    WITHDRAWN,
+    EXPIRED
+}
@@ -4,19 +4,64 @@ import com.medicare.model.Appointment;
 import com.medicare.model.enums.AppointmentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, JpaSpecificationExecutor<Appointment> {
     
     Page<Appointment> findByPatientId(Long patientId, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"patient", "doctor", "doctor.user"})
+    Optional<Appointment> findWithPartiesById(Long id);
+    
+    @EntityGraph(attributePaths = {"patient", "doctor", "doctor.user"})
+    List<Appointment> findWithPartiesByIdIn(Collection<Long> ids);
+    
+    /**
+     * Id and time of the appointments in (start, end] that are still going ahead,
+     * without loading the entities.
+     */
+    @Query("SELECT a.id, a.appointmentDateTime FROM Appointment a WHERE a.status IN :statuses AND " +
+           "a.appointmentDateTime > :start AND a.appointmentDateTime <= :end")
+    List<Object[]> findTimesInRange(@Param("statuses") Collection<AppointmentStatus> statuses,
+                                    @Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end);
+    
+    @Query("SELECT a.appointmentDateTime FROM Appointment a WHERE a.id = :id AND a.status IN :statuses")
+    Optional<LocalDateTime> findTimeByIdAndStatusIn(@Param("id") Long id,
+                                                    @Param("statuses") Collection<AppointmentStatus> statuses);
+    
+    boolean existsByDoctorIdAndBookedSlot(Long doctorId, LocalDateTime bookedSlot);
+    
+    /**
+     * Appointments a patient got with a doctor inside [from, to) that were created at or
+     * after the given time, newest first.
+     */
+    @Query("SELECT a.id FROM Appointment a WHERE a.patient.id = :patientId AND a.doctor.id = :doctorId AND " +
+           "a.appointmentDateTime >= :from AND a.appointmentDateTime < :to AND a.createdAt >= :since " +
+           "ORDER BY a.createdAt DESC")
+    List<Long> findIdsCreatedSince(@Param("patientId") Long patientId,
+                                   @Param("doctorId") Long doctorId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   @Param("since") LocalDateTime since);
+    
+    @Query("SELECT a.doctor.id, a.bookedSlot FROM Appointment a WHERE a.doctor.id IN :doctorIds AND " +
+           "a.bookedSlot BETWEEN :start AND :end")
+    List<Object[]> findBookedSlots(@Param("doctorIds") Collection<Long> doctorIds,
+                                   @Param("start") LocalDateTime start,
+                                   @Param("end") LocalDateTime end);
+    
     Page<Appointment> findByDoctorId(Long doctorId, Pageable pageable);
     
     Page<Appointment> findByStatus(AppointmentStatus status, Pageable pageable);
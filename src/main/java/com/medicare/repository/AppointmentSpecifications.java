@@ -0,0 +1,46 @@
+package com.medicare.repository;
+
+import com.medicare.model.Appointment;
+import com.medicare.model.enums.AppointmentStatus;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Predicates for appointment listings, which run newest first on
+ * (appointmentDateTime, id) so they can be paged with a keyset cursor.
+ */
+public final class AppointmentSpecifications {
+    
+    public static final Sort LISTING_SORT =
+            Sort.by(Sort.Order.desc("appointmentDateTime"), Sort.Order.desc("id"));
+    
+    private AppointmentSpecifications() {
+    }
+    
+    public static Specification<Appointment> forPatient(Long patientId) {
+        return patientId == null ? null
+                : (root, query, cb) -> cb.equal(root.get("patient").get("id"), patientId);
+    }
+    
+    public static Specification<Appointment> forDoctor(Long doctorId) {
+        return doctorId == null ? null
+                : (root, query, cb) -> cb.equal(root.get("doctor").get("id"), doctorId);
+    }
+    
+    public static Specification<Appointment> hasStatus(AppointmentStatus status) {
+        return status == null ? null
+                : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+    
+    /**
+     * Keyset seek for the listing order: rows that come after the given row.
+     */
+    public static Specification<Appointment> before(LocalDateTime appointmentDateTime, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("appointmentDateTime"), appointmentDateTime),
+                cb.and(cb.equal(root.get("appointmentDateTime"), appointmentDateTime),
+                        cb.lessThan(root.get("id"), id)));
+    }
+}
@@ -4,38 +4,51 @@ import com.medicare.model.Doctor;
 import com.medicare.model.enums.Specialization;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+public interface DoctorRepository extends JpaRepository<Doctor, Long>, JpaSpecificationExecutor<Doctor> {
     
     Optional<Doctor> findByUserId(Long userId);
     
+    @EntityGraph(attributePaths = "user")
     Page<Doctor> findByIsActive(Boolean isActive, Pageable pageable);
     
+    @EntityGraph(attributePaths = "user")
+    List<Doctor> findByIsActive(Boolean isActive);
+    
     Page<Doctor> findBySpecialization(Specialization specialization, Pageable pageable);
     
+    @EntityGraph(attributePaths = "user")
     Page<Doctor> findBySpecializationAndIsAvailable(Specialization specialization, 
                                                      Boolean isAvailable, 
                                                      Pageable pageable);
     
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT d FROM Doctor d WHERE d.isActive = true AND d.isAvailable = true AND " +
            "(LOWER(d.user.fullName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(d.specialization) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<Doctor> searchAvailableDoctors(@Param("search") String search, Pageable pageable);
     
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT d FROM Doctor d WHERE d.consultationFee BETWEEN :minFee AND :maxFee")
     Page<Doctor> findByConsultationFeeBetween(@Param("minFee") BigDecimal minFee, 
                                                 @Param("maxFee") BigDecimal maxFee, 
                                                 Pageable pageable);
     
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT d FROM Doctor d WHERE d.rating >= :minRating ORDER BY d.rating DESC")
     List<Doctor> findTopRatedDoctors(@Param("minRating") Double minRating, Pageable pageable);
     
@@ -43,6 +56,41 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     
     long countByIsAvailable(Boolean isAvailable);
     
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT d FROM Doctor d WHERE d.isActive = true AND d.isAvailable = true")
+    List<Doctor> findAllSearchable();
+    
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT d FROM Doctor d WHERE d.id IN :ids")
+    List<Doctor> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Page<Doctor> findAll(Specification<Doctor> spec, Pageable pageable);
+    
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Doctor> findAll(Specification<Doctor> spec);
+    
+    @Query("SELECT d.specialization, d.isAvailable, d.consultationFee, COUNT(d) FROM Doctor d " +
+           "WHERE d.isActive = true GROUP BY d.specialization, d.isAvailable, d.consultationFee")
+    List<Object[]> countActiveBySpecializationAvailabilityAndFee();
+    
+    /**
+     * Folds one review into the running sum and count in a single UPDATE. The right-hand
+     * side sees the row as it was before the update, and concurrent submissions
+     * serialize on the row lock, so none are lost.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Doctor d SET d.ratingSum = d.ratingSum + :rating, " +
+           "d.totalRatings = d.totalRatings + 1, " +
+           "d.rating = 1.0 * (d.ratingSum + :rating) / (d.totalRatings + 1) " +
+           "WHERE d.id = :doctorId")
+    int addRating(@Param("doctorId") Long doctorId, @Param("rating") long rating);
+    
+    @Query("SELECT d.rating, d.totalRatings FROM Doctor d WHERE d.id = :doctorId")
+    List<Object[]> findRatingById(@Param("doctorId") Long doctorId);
+    
     @Query("SELECT AVG(d.consultationFee) FROM Doctor d")
     BigDecimal getAverageConsultationFee();
 }
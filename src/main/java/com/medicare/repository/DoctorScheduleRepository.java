@@ -1,24 +1,33 @@
 package com.medicare.repository;
 
 import com.medicare.model.DoctorSchedule;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.DayOfWeek;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DoctorScheduleRepository extends JpaRepository<DoctorSchedule, Long> {
     
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<DoctorSchedule> findByDoctorId(Long doctorId);
     
+    List<DoctorSchedule> findByDoctorIdIn(Collection<Long> doctorIds);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<DoctorSchedule> findByDoctorIdAndIsAvailable(Long doctorId, Boolean isAvailable);
     
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<DoctorSchedule> findByDoctorIdAndDayOfWeek(Long doctorId, DayOfWeek dayOfWeek);
     
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT ds FROM DoctorSchedule ds WHERE ds.doctor.id = :doctorId AND " +
            "ds.dayOfWeek = :dayOfWeek AND ds.isAvailable = true")
     Optional<DoctorSchedule> findAvailableSchedule(@Param("doctorId") Long doctorId,
@@ -0,0 +1,85 @@
+package com.medicare.repository;
+
+import com.medicare.model.Doctor;
+import com.medicare.model.enums.Specialization;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Composable predicates for the doctor listing. Each returns null when its filter is
+ * absent, which Specification.where/and skip, so the generated WHERE clause only
+ * carries the filters the caller actually set.
+ */
+public final class DoctorSpecifications {
+    
+    private DoctorSpecifications() {
+    }
+    
+    public static Specification<Doctor> isActive() {
+        return (root, query, cb) -> cb.isTrue(root.get("isActive"));
+    }
+    
+    public static Specification<Doctor> hasSpecialization(Specialization specialization) {
+        return specialization == null ? null
+                : (root, query, cb) -> cb.equal(root.get("specialization"), specialization);
+    }
+    
+    public static Specification<Doctor> isAvailable(Boolean available) {
+        return available == null ? null
+                : (root, query, cb) -> cb.equal(root.get("isAvailable"), available);
+    }
+    
+    public static Specification<Doctor> feeBetween(BigDecimal minFee, BigDecimal maxFee) {
+        if (minFee == null && maxFee == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (minFee == null) {
+                return cb.lessThanOrEqualTo(root.get("consultationFee"), maxFee);
+            }
+            if (maxFee == null) {
+                return cb.greaterThanOrEqualTo(root.get("consultationFee"), minFee);
+            }
+            return cb.between(root.get("consultationFee"), minFee, maxFee);
+        };
+    }
+    
+    public static Specification<Doctor> ratingAtLeast(Double minRating) {
+        return minRating == null ? null
+                : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("rating"), minRating);
+    }
+    
+    public static Specification<Doctor> experienceAtLeast(Integer minExperience) {
+        return minExperience == null ? null
+                : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("experienceYears"), minExperience);
+    }
+    
+    /**
+     * Keyset seek for the listing order (rating descending, id ascending): rows that
+     * come after the given row.
+     */
+    public static Specification<Doctor> rankedAfter(Double rating, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("rating"), rating),
+                cb.and(cb.equal(root.get("rating"), rating), cb.greaterThan(root.get("id"), id)));
+    }
+    
+    public static Specification<Doctor> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+    
+    /**
+     * LIKE fallback for free-text search while the in-memory index is still loading.
+     */
+    public static Specification<Doctor> matchesText(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + search.toLowerCase() + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("user").get("fullName")), pattern),
+                cb.like(cb.lower(root.get("specialization").as(String.class)), pattern));
+    }
+}
@@ -17,6 +17,18 @@ public interface MedicalRecordRepository extends JpaRepository<MedicalRecord, Lo
     
     Page<MedicalRecord> findByPatientId(Long patientId, Pageable pageable);
     
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.patient.id = :patientId " +
+           "ORDER BY mr.createdAt DESC, mr.id DESC")
+    List<MedicalRecord> findLatestByPatient(@Param("patientId") Long patientId, Pageable pageable);
+    
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.patient.id = :patientId AND " +
+           "(mr.createdAt < :createdAt OR (mr.createdAt = :createdAt AND mr.id < :id)) " +
+           "ORDER BY mr.createdAt DESC, mr.id DESC")
+    List<MedicalRecord> findByPatientBefore(@Param("patientId") Long patientId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+    
     Optional<MedicalRecord> findByAppointmentId(Long appointmentId);
     
     @Query("SELECT mr FROM MedicalRecord mr WHERE mr.patient.id = :patientId AND " +
@@ -3,6 +3,7 @@ package com.medicare.repository;
 import com.medicare.model.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +14,7 @@ import java.util.Optional;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     
+    @EntityGraph(attributePaths = "patient")
     Page<Review> findByDoctorId(Long doctorId, Pageable pageable);
     
     Optional<Review> findByDoctorIdAndPatientId(Long doctorId, Long patientId);
@@ -0,0 +1,37 @@
+package com.medicare.repository;
+
+import com.medicare.model.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+    
+    /**
+     * Renews a lease this owner holds, or takes over one that has expired.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.owner = :owner, l.expiresAt = :expiresAt " +
+           "WHERE l.name = :name AND (l.owner = :owner OR l.expiresAt < :now)")
+    int claim(@Param("name") String name, @Param("owner") String owner,
+              @Param("now") long now, @Param("expiresAt") long expiresAt);
+    
+    /**
+     * Plain insert rather than save(), which would merge over a row another node just
+     * created; a concurrent insert fails on the primary key instead.
+     */
+    @Transactional
+    @Modifying
+    @Query("INSERT INTO SchedulerLease (name, owner, expiresAt) VALUES (:name, :owner, :expiresAt)")
+    int create(@Param("name") String name, @Param("owner") String owner, @Param("expiresAt") long expiresAt);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SchedulerLease l WHERE l.name LIKE CONCAT(:prefix, '%') AND l.expiresAt < :before")
+    int deleteExpired(@Param("prefix") String prefix, @Param("before") long before);
+}
@@ -2,22 +2,31 @@ package com.medicare.repository;
 
 import com.medicare.model.User;
 import com.medicare.model.enums.UserRole;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<User> findByEmail(String email);
     
     boolean existsByEmail(String email);
     
+    List<User> findByEmailIn(Collection<String> emails);
+    
     Page<User> findByRole(UserRole role, Pageable pageable);
     
     Page<User> findByRoleAndIsActive(UserRole role, Boolean isActive, Pageable pageable);
@@ -32,4 +41,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
     long countByRole(UserRole role);
     
     long countByRoleAndIsActive(UserRole role, Boolean isActive);
+    
+    @Query("SELECT u.securityEpoch FROM User u WHERE u.id = :id AND u.isActive = true")
+    Optional<Long> findActiveSecurityEpoch(@Param("id") Long id);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.securityEpoch = u.securityEpoch + 1 WHERE u.id = :id")
+    int incrementSecurityEpoch(@Param("id") Long id);
 }
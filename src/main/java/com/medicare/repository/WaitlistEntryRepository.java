@@ -0,0 +1,58 @@
+package com.medicare.repository;
+
+import com.medicare.model.WaitlistEntry;
+import com.medicare.model.enums.WaitlistStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    List<WaitlistEntry> findByStatusAndWindowEndAfter(WaitlistStatus status, LocalDateTime after);
+    
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    Optional<WaitlistEntry> findWithPartiesById(Long id);
+    
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    List<WaitlistEntry> findByStatusAndUpdatedAtBefore(WaitlistStatus status, LocalDateTime before);
+    
+    @EntityGraph(attributePaths = {"doctor", "doctor.user"})
+    List<WaitlistEntry> findByPatientIdOrderByCreatedAtDesc(Long patientId);
+    
+    long countByPatientIdAndStatus(Long patientId, WaitlistStatus status);
+    
+    boolean existsByPatientIdAndDoctorIdAndStatus(Long patientId, Long doctorId, WaitlistStatus status);
+    
+    /**
+     * Compare-and-set on the status; the entry is claimed only by the caller that sees 1.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = :to, w.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE w.id = :id AND w.status = :from")
+    int transition(@Param("id") Long id, @Param("from") WaitlistStatus from, @Param("to") WaitlistStatus to);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = com.medicare.model.enums.WaitlistStatus.BOOKED, " +
+           "w.appointmentId = :appointmentId, w.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE w.id = :id AND w.status = com.medicare.model.enums.WaitlistStatus.BOOKING")
+    int markBooked(@Param("id") Long id, @Param("appointmentId") Long appointmentId);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = com.medicare.model.enums.WaitlistStatus.EXPIRED, " +
+           "w.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE w.status = com.medicare.model.enums.WaitlistStatus.WAITING AND w.windowEnd <= :now")
+    int expire(@Param("now") LocalDateTime now);
+}
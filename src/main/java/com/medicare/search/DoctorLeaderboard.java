@@ -0,0 +1,154 @@
+package com.medicare.search;
+
+import com.medicare.cache.CacheInvalidationMessage;
+import com.medicare.cache.CacheInvalidationTransport;
+import com.medicare.model.Doctor;
+import com.medicare.model.enums.Specialization;
+import com.medicare.repository.DoctorRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Active doctors ranked by rating, overall and per specialization, held in sorted
+ * sets so a rating change is a remove and re-insert in O(log n) and reading the top
+ * N walks the head of a set. Ties go to the lower id.
+ *
+ * Also keeps running per-specialization counts and rating sums for analytics.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DoctorLeaderboard {
+    
+    private static final Comparator<Standing> ORDER = Comparator.comparingDouble(Standing::rating).reversed()
+            .thenComparing(Standing::doctorId);
+    
+    private final DoctorRepository doctorRepository;
+    private final CacheInvalidationTransport invalidationTransport;
+    
+    private final NavigableSet<Standing> overall = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Specialization, NavigableSet<Standing>> bySpecialization = new ConcurrentHashMap<>();
+    private final Map<Long, Standing> standings = new HashMap<>();
+    private final Map<Specialization, Long> counts = new EnumMap<>(Specialization.class);
+    private double ratingSum;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        invalidationTransport.subscribe(this::onInvalidation);
+        rebuild();
+    }
+    
+    public void rebuild() {
+        List<Doctor> doctors = doctorRepository.findByIsActive(true);
+        synchronized (this) {
+            overall.clear();
+            bySpecialization.clear();
+            standings.clear();
+            counts.clear();
+            ratingSum = 0;
+            doctors.forEach(this::add);
+        }
+        log.info("Doctor leaderboard built with {} doctors", doctors.size());
+    }
+    
+    /**
+     * Adds, refreshes or drops a doctor depending on whether it is still active.
+     */
+    public synchronized void update(Doctor doctor) {
+        remove(doctor.getId());
+        if (Boolean.TRUE.equals(doctor.getIsActive())) {
+            add(doctor);
+        }
+    }
+    
+    public synchronized void updateRating(Long doctorId, double rating) {
+        Standing existing = remove(doctorId);
+        if (existing != null) {
+            add(new Standing(doctorId, existing.name(), existing.specialization(), rating));
+        }
+    }
+    
+    public List<Standing> top(int limit) {
+        return head(overall, limit);
+    }
+    
+    public List<Standing> top(Specialization specialization, int limit) {
+        NavigableSet<Standing> ranked = bySpecialization.get(specialization);
+        return ranked != null ? head(ranked, limit) : new ArrayList<>();
+    }
+    
+    public synchronized double averageRating() {
+        return standings.isEmpty() ? 0.0 : ratingSum / standings.size();
+    }
+    
+    public synchronized Map<String, Long> countBySpecialization() {
+        Map<String, Long> result = new HashMap<>();
+        counts.forEach((specialization, count) -> result.put(specialization.name(), count));
+        return result;
+    }
+    
+    private static List<Standing> head(NavigableSet<Standing> ranked, int limit) {
+        List<Standing> result = new ArrayList<>(limit);
+        for (Standing standing : ranked) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(standing);
+        }
+        return result;
+    }
+    
+    private void onInvalidation(CacheInvalidationMessage message) {
+        if (CacheInvalidationMessage.ALL_CACHES.equals(message.cacheName())) {
+            rebuild();
+        } else if ("doctors".equals(message.cacheName()) && message.key() instanceof Long doctorId) {
+            // Another node changed this doctor; pick up its current state
+            doctorRepository.findWithUserByIdIn(List.of(doctorId)).stream()
+                    .findFirst()
+                    .ifPresentOrElse(this::update, () -> {
+                        synchronized (this) {
+                            remove(doctorId);
+                        }
+                    });
+        }
+    }
+    
+    private void add(Doctor doctor) {
+        add(new Standing(doctor.getId(), doctor.getUser().getFullName(), doctor.getSpecialization(),
+                doctor.getRating() != null ? doctor.getRating() : 0.0));
+    }
+    
+    private void add(Standing standing) {
+        standings.put(standing.doctorId(), standing);
+        overall.add(standing);
+        bySpecialization.computeIfAbsent(standing.specialization(), s -> new ConcurrentSkipListSet<>(ORDER))
+                .add(standing);
+        counts.merge(standing.specialization(), 1L, Long::sum);
+        ratingSum += standing.rating();
+    }
+    
+    private Standing remove(Long doctorId) {
+        Standing standing = standings.remove(doctorId);
+        if (standing == null) {
+            return null;
+        }
+        overall.remove(standing);
+        NavigableSet<Standing> ranked = bySpecialization.get(standing.specialization());
+        if (ranked != null) {
+            ranked.remove(standing);
+        }
+        counts.computeIfPresent(standing.specialization(), (s, count) -> count > 1 ? count - 1 : null);
+        ratingSum -= standing.rating();
+        return standing;
+    }
+    
+    public record Standing(Long doctorId, String name, Specialization specialization, double rating) {
+    }
+}
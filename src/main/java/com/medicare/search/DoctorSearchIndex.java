@@ -0,0 +1,365 @@
+package com.medicare.search;
+
+import com.medicare.cache.CacheInvalidationMessage;
+import com.medicare.cache.CacheInvalidationTransport;
+import com.medicare.model.Doctor;
+import com.medicare.repository.DoctorRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over searchable (active and available) doctors: name,
+ * specialization and qualification tokens plus their trigrams, so substring
+ * queries resolve through posting lists instead of a LIKE '%term%' table scan.
+ *
+ * Every query token must match. A token scores by the best field it hits
+ * (name > specialization > qualification) and by how well (exact > prefix > substring).
+ * Ties go to the higher rated doctor.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DoctorSearchIndex {
+    
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double SPECIALIZATION_WEIGHT = 2.0;
+    private static final double QUALIFICATION_WEIGHT = 1.0;
+    private static final int GRAM = 3;
+    
+    private final DoctorRepository doctorRepository;
+    private final CacheInvalidationTransport invalidationTransport;
+    private final DoctorSuggestIndex suggestIndex;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+    private final Map<Long, IndexedDoctor> documents = new HashMap<>();
+    private final Map<String, Set<Long>> tokenPostings = new HashMap<>();
+    private final Map<String, Set<Long>> gramPostings = new HashMap<>();
+    // Doctors changed while a rebuild is loading; null when no rebuild runs
+    private Set<Long> changedDuringRebuild;
+    private volatile boolean ready;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        invalidationTransport.subscribe(this::onInvalidation);
+        rebuild();
+        ready = true;
+    }
+    
+    /**
+     * Reloads every searchable doctor. A change indexed while the snapshot loads is
+     * newer than the snapshot, so those doctors are fetched again afterwards rather
+     * than rolled back to their snapshot state.
+     */
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            trackChanges(new HashSet<>());
+            try {
+                List<Doctor> doctors = doctorRepository.findAllSearchable();
+                Set<Long> changed;
+                lock.writeLock().lock();
+                try {
+                    documents.clear();
+                    tokenPostings.clear();
+                    gramPostings.clear();
+                    doctors.forEach(this::add);
+                    suggestIndex.rebuild(doctors);
+                    changed = changedDuringRebuild;
+                    changedDuringRebuild = new HashSet<>();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!changed.isEmpty()) {
+                    reload(changed);
+                }
+                log.info("Doctor search index built with {} doctors, {} reloaded after concurrent changes",
+                        doctors.size(), changed.size());
+            } finally {
+                trackChanges(null);
+            }
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Adds, refreshes or drops a doctor depending on whether it is still searchable.
+     */
+    public void index(Doctor doctor) {
+        lock.writeLock().lock();
+        try {
+            markChanged(doctor.getId());
+            remove(doctor.getId());
+            if (isSearchable(doctor)) {
+                add(doctor);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (isSearchable(doctor)) {
+            suggestIndex.index(doctor);
+        } else {
+            suggestIndex.remove(doctor.getId());
+        }
+    }
+    
+    public void updateRating(Long doctorId, double rating) {
+        lock.writeLock().lock();
+        try {
+            markChanged(doctorId);
+            IndexedDoctor existing = documents.get(doctorId);
+            if (existing != null) {
+                documents.put(doctorId, existing.withRating(rating));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        suggestIndex.updateRating(doctorId, rating);
+    }
+    
+    /**
+     * Returns ids of all matching doctors, best match first.
+     */
+    public List<Long> search(String query) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String token : queryTokens) {
+                Map<Long, Double> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+            
+            List<Long> ranked = new ArrayList<>(scores.keySet());
+            Map<Long, Double> finalScores = scores;
+            ranked.sort(Comparator.<Long>comparingDouble(id -> -finalScores.get(id))
+                    .thenComparingDouble(id -> -documents.get(id).rating())
+                    .thenComparing(Comparator.naturalOrder()));
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private Map<Long, Double> scoreToken(String token) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (Long id : candidates(token)) {
+            IndexedDoctor doc = documents.get(id);
+            double score = Math.max(NAME_WEIGHT * fieldScore(doc.nameTokens(), token),
+                    Math.max(SPECIALIZATION_WEIGHT * fieldScore(doc.specializationTokens(), token),
+                            QUALIFICATION_WEIGHT * fieldScore(doc.qualificationTokens(), token)));
+            if (score > 0) {
+                scores.put(id, score);
+            }
+        }
+        return scores;
+    }
+    
+    /**
+     * Doctors that may contain the token, i.e. every doctor holding all of its
+     * trigrams. Tokens shorter than a trigram fall back to a scan of the vocabulary.
+     */
+    private Collection<Long> candidates(String token) {
+        if (token.length() < GRAM) {
+            Set<Long> result = new HashSet<>();
+            tokenPostings.forEach((term, posting) -> {
+                if (term.contains(token)) {
+                    result.addAll(posting);
+                }
+            });
+            return result;
+        }
+        Set<Long> result = null;
+        for (String gram : grams(token)) {
+            Set<Long> posting = gramPostings.get(gram);
+            if (posting == null) {
+                return Collections.emptySet();
+            }
+            if (result == null) {
+                result = new HashSet<>(posting);
+            } else {
+                result.retainAll(posting);
+            }
+        }
+        return result;
+    }
+    
+    private static double fieldScore(List<String> fieldTokens, String token) {
+        double best = 0;
+        for (String fieldToken : fieldTokens) {
+            if (fieldToken.equals(token)) {
+                return 1.0;
+            } else if (fieldToken.startsWith(token)) {
+                best = Math.max(best, 0.75);
+            } else if (fieldToken.contains(token)) {
+                best = Math.max(best, 0.5);
+            }
+        }
+        return best;
+    }
+    
+    private void onInvalidation(CacheInvalidationMessage message) {
+        if (CacheInvalidationMessage.ALL_CACHES.equals(message.cacheName())) {
+            rebuild();
+        } else if ("doctors".equals(message.cacheName()) && message.key() instanceof Long doctorId) {
+            // Another node changed this doctor; pick up its current state
+            doctorRepository.findWithUserByIdIn(List.of(doctorId)).stream()
+                    .findFirst()
+                    .ifPresentOrElse(this::index, () -> {
+                        lock.writeLock().lock();
+                        try {
+                            markChanged(doctorId);
+                            remove(doctorId);
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+                        suggestIndex.remove(doctorId);
+                    });
+        }
+    }
+    
+    /**
+     * Applies the current state of doctors changed during a rebuild's load, except
+     * those changed yet again meanwhile: that later change is already applied.
+     */
+    private void reload(Set<Long> doctorIds) {
+        Map<Long, Doctor> current = new HashMap<>();
+        doctorRepository.findWithUserByIdIn(doctorIds).forEach(doctor -> current.put(doctor.getId(), doctor));
+        lock.writeLock().lock();
+        try {
+            for (Long doctorId : doctorIds) {
+                if (changedDuringRebuild.contains(doctorId)) {
+                    continue;
+                }
+                remove(doctorId);
+                Doctor doctor = current.get(doctorId);
+                if (doctor != null && isSearchable(doctor)) {
+                    add(doctor);
+                    suggestIndex.index(doctor);
+                } else {
+                    suggestIndex.remove(doctorId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void trackChanges(Set<Long> changed) {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Must be called under the write lock.
+     */
+    private void markChanged(Long doctorId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(doctorId);
+        }
+    }
+    
+    private void add(Doctor doctor) {
+        IndexedDoctor doc = new IndexedDoctor(
+                doctor.getId(),
+                doctor.getRating() != null ? doctor.getRating() : 0.0,
+                tokenize(doctor.getUser().getFullName()),
+                tokenize(doctor.getSpecialization().name()),
+                tokenize(doctor.getQualification()));
+        documents.put(doc.id(), doc);
+        for (String token : doc.allTokens()) {
+            tokenPostings.computeIfAbsent(token, t -> new HashSet<>()).add(doc.id());
+            for (String gram : grams(token)) {
+                gramPostings.computeIfAbsent(gram, g -> new HashSet<>()).add(doc.id());
+            }
+        }
+    }
+    
+    private void remove(Long doctorId) {
+        IndexedDoctor doc = documents.remove(doctorId);
+        if (doc == null) {
+            return;
+        }
+        for (String token : doc.allTokens()) {
+            removePosting(tokenPostings, token, doctorId);
+            for (String gram : grams(token)) {
+                removePosting(gramPostings, gram, doctorId);
+            }
+        }
+    }
+    
+    private static void removePosting(Map<String, Set<Long>> postings, String term, Long doctorId) {
+        Set<Long> posting = postings.get(term);
+        if (posting != null) {
+            posting.remove(doctorId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+    
+    private static boolean isSearchable(Doctor doctor) {
+        return Boolean.TRUE.equals(doctor.getIsActive()) && Boolean.TRUE.equals(doctor.getIsAvailable());
+    }
+    
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    private static List<String> grams(String token) {
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + GRAM <= token.length(); i++) {
+            grams.add(token.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+    
+    private record IndexedDoctor(Long id, double rating, List<String> nameTokens,
+                                 List<String> specializationTokens, List<String> qualificationTokens) {
+        
+        Set<String> allTokens() {
+            Set<String> tokens = new HashSet<>(nameTokens);
+            tokens.addAll(specializationTokens);
+            tokens.addAll(qualificationTokens);
+            return tokens;
+        }
+        
+        IndexedDoctor withRating(double newRating) {
+            return new IndexedDoctor(id, newRating, nameTokens, specializationTokens, qualificationTokens);
+        }
+    }
+}
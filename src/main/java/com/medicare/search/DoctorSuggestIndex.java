@@ -0,0 +1,199 @@
+package com.medicare.search;
+
+import com.medicare.dto.DoctorDTO;
+import com.medicare.model.Doctor;
+import com.medicare.model.enums.Specialization;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Type-ahead over doctor names, specializations and qualifications. Terms live in a
+ * sorted concurrent map, so a prefix lookup is a range scan starting at the prefix
+ * and reads never block; the doctor search index patches it as doctors change.
+ *
+ * Every word of a label is a term, so "smi" finds "John Smith". Specializations
+ * rank first, then doctors by rating, then qualifications.
+ */
+@Component
+public class DoctorSuggestIndex {
+    
+    private static final double SPECIALIZATION_WEIGHT = 10.0;
+    private static final int SCAN_FACTOR = 20;
+    
+    private final ConcurrentSkipListMap<String, Set<String>> terms = new ConcurrentSkipListMap<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, String> doctorQualifications = new HashMap<>();
+    
+    @PostConstruct
+    void indexSpecializations() {
+        for (Specialization specialization : Specialization.values()) {
+            String label = toLabel(specialization);
+            DoctorDTO.Suggestion suggestion = DoctorDTO.Suggestion.builder()
+                    .type("SPECIALIZATION")
+                    .value(specialization.name())
+                    .label(label)
+                    .build();
+            put("S:" + specialization.name(), suggestion, SPECIALIZATION_WEIGHT);
+        }
+    }
+    
+    public List<DoctorDTO.Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        
+        // Scan a bounded number of keys past the prefix, then rank what was found
+        ConcurrentNavigableMap<String, Set<String>> range =
+                terms.subMap(normalized, true, normalized + Character.MAX_VALUE, true);
+        Set<String> keys = new LinkedHashSet<>();
+        int scanLimit = limit * SCAN_FACTOR;
+        for (Set<String> termKeys : range.values()) {
+            keys.addAll(termKeys);
+            if (keys.size() >= scanLimit) {
+                break;
+            }
+        }
+        
+        return keys.stream()
+                .map(entries::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingDouble(Entry::weight).reversed()
+                        .thenComparing(entry -> entry.suggestion().getLabel()))
+                .limit(limit)
+                .map(Entry::suggestion)
+                .toList();
+    }
+    
+    synchronized void rebuild(Collection<Doctor> doctors) {
+        new ArrayList<>(doctorQualifications.keySet()).forEach(this::remove);
+        doctors.forEach(this::index);
+    }
+    
+    synchronized void index(Doctor doctor) {
+        remove(doctor.getId());
+        
+        DoctorDTO.Suggestion suggestion = DoctorDTO.Suggestion.builder()
+                .type("DOCTOR")
+                .id(doctor.getId())
+                .value(doctor.getSpecialization().name())
+                .label(doctor.getUser().getFullName())
+                .build();
+        put("D:" + doctor.getId(), suggestion, doctor.getRating() != null ? doctor.getRating() : 0.0);
+        
+        String qualification = doctor.getQualification();
+        if (qualification != null && !qualification.isBlank()) {
+            doctorQualifications.put(doctor.getId(), qualification);
+            String key = "Q:" + normalize(qualification);
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                existing.references++;
+            } else {
+                put(key, DoctorDTO.Suggestion.builder()
+                        .type("QUALIFICATION")
+                        .value(qualification)
+                        .label(qualification)
+                        .build(), 0.0);
+            }
+        } else {
+            doctorQualifications.put(doctor.getId(), null);
+        }
+    }
+    
+    synchronized void updateRating(Long doctorId, double rating) {
+        Entry entry = entries.get("D:" + doctorId);
+        if (entry != null) {
+            entry.weight = rating;
+        }
+    }
+    
+    synchronized void remove(Long doctorId) {
+        if (!doctorQualifications.containsKey(doctorId)) {
+            return;
+        }
+        delete("D:" + doctorId);
+        
+        String qualification = doctorQualifications.remove(doctorId);
+        if (qualification != null) {
+            String key = "Q:" + normalize(qualification);
+            Entry entry = entries.get(key);
+            if (entry != null && --entry.references <= 0) {
+                delete(key);
+            }
+        }
+    }
+    
+    private void put(String key, DoctorDTO.Suggestion suggestion, double weight) {
+        Entry entry = new Entry(suggestion, weight, termsOf(suggestion.getLabel()));
+        entries.put(key, entry);
+        for (String term : entry.terms) {
+            terms.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+    
+    private void delete(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (String term : entry.terms) {
+            terms.computeIfPresent(term, (t, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+    
+    /**
+     * The whole label plus every suffix starting at a word boundary.
+     */
+    private static List<String> termsOf(String label) {
+        List<String> result = new ArrayList<>();
+        List<String> words = DoctorSearchIndex.tokenize(label);
+        for (int i = 0; i < words.size(); i++) {
+            result.add(String.join(" ", words.subList(i, words.size())));
+        }
+        return result;
+    }
+    
+    private static String normalize(String text) {
+        return text == null ? "" : String.join(" ", DoctorSearchIndex.tokenize(text));
+    }
+    
+    private static String toLabel(Specialization specialization) {
+        StringBuilder label = new StringBuilder();
+        for (String word : specialization.name().split("_")) {
+            if (!label.isEmpty()) {
+                label.append(' ');
+            }
+            label.append(word.charAt(0)).append(word.substring(1).toLowerCase(Locale.ROOT));
+        }
+        return label.toString();
+    }
+    
+    private static class Entry {
+        private final DoctorDTO.Suggestion suggestion;
+        private volatile double weight;
+        private final List<String> terms;
+        private int references = 1;
+        
+        Entry(DoctorDTO.Suggestion suggestion, double weight, List<String> terms) {
+            this.suggestion = suggestion;
+            this.weight = weight;
+            this.terms = terms;
+        }
+        
+        DoctorDTO.Suggestion suggestion() {
+            return suggestion;
+        }
+        
+        double weight() {
+            return weight;
+        }
+    }
+}
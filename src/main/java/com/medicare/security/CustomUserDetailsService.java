@@ -1,8 +1,11 @@
 package com.medicare.security;
 
 import com.medicare.model.User;
+import com.medicare.model.enums.UserRole;
 import com.medicare.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,20 +19,40 @@ import java.util.Collections;
 public class CustomUserDetailsService implements UserDetailsService {
     
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
     
+    /**
+     * Serves from the "users" cache. The cache holds an immutable snapshot and a new
+     * UserDetails is built per call, because Spring Security erases credentials on
+     * the instances it is handed.
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        Cache cache = cacheManager.getCache("users");
+        UserSnapshot snapshot = cache.get(email, UserSnapshot.class);
+        
+        if (snapshot == null) {
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+            snapshot = new UserSnapshot(user.getEmail(), user.getPassword(), user.getIsActive(), user.getRole());
+            cache.put(email, snapshot);
+        }
         
         return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                user.getIsActive(),
+                snapshot.email(),
+                snapshot.password(),
+                snapshot.active(),
                 true,
                 true,
                 true,
-                Collections.singletonList(new SimpleGrantedAuthority(user.getRole().name()))
+                Collections.singletonList(new SimpleGrantedAuthority(snapshot.role().name()))
         );
     }
+    
+    public void evictUser(String email) {
+        cacheManager.getCache("users").evict(email);
+    }
+    
+    private record UserSnapshot(String email, String password, boolean active, UserRole role) {
+    }
 }
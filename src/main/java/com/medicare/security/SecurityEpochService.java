@@ -0,0 +1,63 @@
+package com.medicare.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medicare.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+/**
+ * Small in-memory table of userId -> current security epoch. Lets the JWT filter
+ * reject tokens of deactivated or changed accounts without loading the full user.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SecurityEpochService {
+    
+    private static final long INACTIVE = -1L;
+    
+    private final UserRepository userRepository;
+    
+    @Value("${security.epoch-cache.max-size:10000}")
+    private long maxSize;
+    
+    @Value("${security.epoch-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+    
+    private Cache<Long, Long> epochs;
+    
+    @PostConstruct
+    void init() {
+        // The TTL bounds how long another node can keep honouring a stale epoch
+        epochs = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+    
+    public boolean isCurrent(Long userId, Long tokenEpoch) {
+        if (userId == null || tokenEpoch == null) {
+            return false;
+        }
+        Long current = epochs.get(userId, id -> userRepository.findActiveSecurityEpoch(id).orElse(INACTIVE));
+        return current != INACTIVE && current.equals(tokenEpoch);
+    }
+    
+    @Transactional
+    public void bumpEpoch(Long userId) {
+        userRepository.incrementSecurityEpoch(userId);
+        epochs.invalidate(userId);
+        log.info("Security epoch bumped for user: {}", userId);
+    }
+    
+    public void evict(Long userId) {
+        epochs.invalidate(userId);
+    }
+}
@@ -2,6 +2,7 @@ package com.medicare.service;
 
 import com.medicare.model.enums.AppointmentStatus;
 import com.medicare.repository.*;
+import com.medicare.search.DoctorLeaderboard;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
@@ -15,6 +16,7 @@ public class AnalyticsService {
     private final DoctorRepository doctorRepository;
     private final AppointmentRepository appointmentRepository;
     private final MedicalRecordRepository medicalRecordRepository;
+    private final DoctorLeaderboard leaderboard;
     
     public Map<String, Object> getDashboardStatistics() {
         Map<String, Object> stats = new HashMap<>();
@@ -58,29 +60,18 @@ public class AnalyticsService {
         return analytics;
     }
     
+    /**
+     * Served from the in-memory leaderboard, which covers active doctors.
+     */
     public Map<String, Object> getDoctorPerformanceMetrics() {
         Map<String, Object> metrics = new HashMap<>();
         
-        List<com.medicare.model.Doctor> doctors = doctorRepository.findAll();
-        
-        Map<String, Object> topDoctors = new HashMap<>();
-        doctors.stream()
-                .sorted((d1, d2) -> Double.compare(d2.getRating(), d1.getRating()))
-                .limit(5)
-                .forEach(d -> topDoctors.put(d.getUser().getFullName(), d.getRating()));
+        Map<String, Object> topDoctors = new LinkedHashMap<>();
+        leaderboard.top(5).forEach(d -> topDoctors.put(d.name(), d.rating()));
         
         metrics.put("topRatedDoctors", topDoctors);
-        metrics.put("averageRating", doctors.stream()
-                .mapToDouble(com.medicare.model.Doctor::getRating)
-                .average()
-                .orElse(0.0));
-        
-        Map<String, Long> bySpecialization = new HashMap<>();
-        for (com.medicare.model.Doctor doctor : doctors) {
-            String spec = doctor.getSpecialization().name();
-            bySpecialization.put(spec, bySpecialization.getOrDefault(spec, 0L) + 1);
-        }
-        metrics.put("doctorsBySpecialization", bySpecialization);
+        metrics.put("averageRating", leaderboard.averageRating());
+        metrics.put("doctorsBySpecialization", leaderboard.countBySpecialization());
         
         return metrics;
     }
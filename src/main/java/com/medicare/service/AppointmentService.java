@@ -0,0 +1,447 @@
+package com.medicare.service;
+
+import com.medicare.dto.AppointmentDTO;
+import com.medicare.dto.PageResponse;
+import com.medicare.exception.BadRequestException;
+import com.medicare.exception.ResourceNotFoundException;
+import com.medicare.exception.ServiceUnavailableException;
+import com.medicare.exception.SlotUnavailableException;
+import com.medicare.model.Appointment;
+import com.medicare.model.Doctor;
+import com.medicare.model.User;
+import com.medicare.model.enums.AppointmentStatus;
+import com.medicare.model.enums.UserRole;
+import com.medicare.repository.AppointmentRepository;
+import com.medicare.repository.DoctorRepository;
+import com.medicare.repository.UserRepository;
+import com.medicare.util.PageCursor;
+import com.medicare.util.StripedLocks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.medicare.repository.AppointmentSpecifications.*;
+
+/**
+ * Booking engine. One live booking per (doctor, slot) is guaranteed by the unique
+ * (doctor_id, bookedSlot) constraint; within a node, bookings for the same doctor are
+ * additionally serialized on a striped lock held until commit, so racing requests
+ * queue briefly instead of all doing the insert work and failing on the constraint.
+ * Requests are first checked against the cached availability bitmap, so most
+ * attempts on a taken slot never reach the database.
+ */
+@Service
+@Slf4j
+public class AppointmentService {
+    
+    private static final String CURSOR_KIND = "ap";
+    private static final String[] LISTING_GRAPH = {"patient", "doctor", "doctor.user"};
+    private static final Set<AppointmentStatus> CLOSED =
+            EnumSet.of(AppointmentStatus.CANCELLED, AppointmentStatus.NO_SHOW, AppointmentStatus.COMPLETED);
+    
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final UserRepository userRepository;
+    private final AvailabilityService availabilityService;
+    private final EmailService emailService;
+    private final ReminderService reminderService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final StripedLocks doctorLocks;
+    private final long lockTimeoutMillis;
+    
+    public AppointmentService(AppointmentRepository appointmentRepository,
+                              DoctorRepository doctorRepository,
+                              UserRepository userRepository,
+                              AvailabilityService availabilityService,
+                              EmailService emailService,
+                              ReminderService reminderService,
+                              ApplicationEventPublisher eventPublisher,
+                              CacheManager cacheManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${booking.lock-stripes:64}") int lockStripes,
+                              @Value("${booking.lock-timeout-ms:2000}") long lockTimeoutMillis) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.userRepository = userRepository;
+        this.availabilityService = availabilityService;
+        this.emailService = emailService;
+        this.reminderService = reminderService;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.doctorLocks = new StripedLocks(lockStripes);
+        this.lockTimeoutMillis = lockTimeoutMillis;
+    }
+    
+    public AppointmentDTO.Response bookAppointment(AppointmentDTO.CreateRequest request, String email) {
+        User patient = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Doctor doctor = doctorRepository.findById(request.getDoctorId())
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found"));
+        if (!Boolean.TRUE.equals(doctor.getIsActive()) || !Boolean.TRUE.equals(doctor.getIsAvailable())) {
+            throw new BadRequestException("Doctor is not accepting appointments");
+        }
+        LocalDateTime slot = request.getAppointmentDateTime();
+        checkSlot(doctor.getId(), slot);
+        
+        return withDoctorLock(doctor.getId(), () -> transactionTemplate.execute(status -> {
+            ensureSlotNotBooked(doctor.getId(), slot);
+            Appointment appointment = Appointment.builder()
+                    .patient(patient)
+                    .doctor(doctor)
+                    .appointmentDateTime(slot)
+                    .bookedSlot(slot)
+                    .appointmentType(request.getAppointmentType())
+                    .status(AppointmentStatus.SCHEDULED)
+                    .symptoms(request.getSymptoms())
+                    .amount(doctor.getConsultationFee())
+                    .build();
+            appointment = saveClaim(appointment);
+            
+            Long appointmentId = appointment.getId();
+            availabilityService.markBooked(doctor.getId(), slot);
+            afterCommit(() -> reminderService.appointmentScheduled(appointmentId, slot));
+            afterCommit(() -> emailService.sendAppointmentConfirmation(patient.getEmail(), patient.getFullName(),
+                    doctor.getUser().getFullName(), slot.toString()));
+            log.info("Appointment {} booked with doctor {} at {}", appointment.getId(), doctor.getId(), slot);
+            return mapToResponse(appointment);
+        }));
+    }
+    
+    @Transactional(readOnly = true)
+    public PageResponse<AppointmentDTO.Response> getAppointments(int page, int size, String status, String cursor,
+                                                                 boolean includeTotal, Authentication authentication) {
+        User user = currentUser(authentication.getName());
+        Specification<Appointment> scope = switch (user.getRole()) {
+            case ADMIN -> null;
+            case DOCTOR -> forDoctor(doctorIdOf(user));
+            case PATIENT -> forPatient(user.getId());
+        };
+        AppointmentStatus statusFilter = status != null ? AppointmentStatus.valueOf(status.toUpperCase()) : null;
+        return list(Specification.where(scope).and(hasStatus(statusFilter)), page, size, cursor, includeTotal);
+    }
+    
+    @Transactional(readOnly = true)
+    public PageResponse<AppointmentDTO.Response> getUserAppointments(int page, int size, String cursor,
+                                                                     boolean includeTotal, String email) {
+        User user = currentUser(email);
+        Specification<Appointment> scope = user.getRole() == UserRole.DOCTOR
+                ? forDoctor(doctorIdOf(user))
+                : forPatient(user.getId());
+        return list(Specification.where(scope), page, size, cursor, includeTotal);
+    }
+    
+    /**
+     * Reads through the "appointments" cache by hand rather than with @Cacheable, so the
+     * access check runs on every call and a cache hit cannot skip it.
+     */
+    @Transactional(readOnly = true)
+    public AppointmentDTO.Response getAppointmentById(Long id, Authentication authentication) {
+        User user = currentUser(authentication.getName());
+        Cache cache = cacheManager.getCache("appointments");
+        AppointmentDTO.Response appointment = cache.get(id, AppointmentDTO.Response.class);
+        if (appointment == null) {
+            appointment = mapToResponse(findAppointment(id));
+            cache.put(id, appointment);
+        }
+        checkAccess(appointment, user);
+        return appointment;
+    }
+    
+    /**
+     * Patients may reschedule, change the type and symptoms, or cancel; doctors and
+     * admins may also set the status, notes and prescription. A new time claims the new
+     * slot under the same guarantees as a booking.
+     */
+    @CacheEvict(value = "appointments", key = "#id")
+    public AppointmentDTO.Response updateAppointment(Long id, AppointmentDTO.UpdateRequest request,
+                                                     Authentication authentication) {
+        User user = currentUser(authentication.getName());
+        Appointment current = findAppointment(id);
+        Long doctorId = current.getDoctor().getId();
+        // Clients often send the whole appointment back; an unchanged time is not a reschedule
+        boolean rescheduling = request.getAppointmentDateTime() != null
+                && !request.getAppointmentDateTime().equals(current.getAppointmentDateTime());
+        if (rescheduling) {
+            if (!request.getAppointmentDateTime().isAfter(LocalDateTime.now())) {
+                throw new BadRequestException("Appointment must be in the future");
+            }
+            checkSlot(doctorId, request.getAppointmentDateTime());
+        }
+        
+        Supplier<AppointmentDTO.Response> update = () -> transactionTemplate.execute(status -> {
+            Appointment appointment = findAppointment(id);
+            checkAccess(appointment, user);
+            if (CLOSED.contains(appointment.getStatus())) {
+                throw new BadRequestException("Appointment can no longer be changed");
+            }
+            boolean staff = user.getRole() != UserRole.PATIENT;
+            if (!staff && (request.getNotes() != null || request.getPrescription() != null
+                    || (request.getStatus() != null && request.getStatus() != AppointmentStatus.CANCELLED))) {
+                throw new AccessDeniedException("Only the doctor can change the status, notes or prescription");
+            }
+            
+            if (request.getAppointmentType() != null) {
+                appointment.setAppointmentType(request.getAppointmentType());
+            }
+            if (request.getSymptoms() != null) {
+                appointment.setSymptoms(request.getSymptoms());
+            }
+            if (request.getNotes() != null) {
+                appointment.setNotes(request.getNotes());
+            }
+            if (request.getPrescription() != null) {
+                appointment.setPrescription(request.getPrescription());
+            }
+            if (rescheduling && !request.getAppointmentDateTime().equals(appointment.getAppointmentDateTime())) {
+                LocalDateTime previous = appointment.getAppointmentDateTime();
+                ensureSlotNotBooked(doctorId, request.getAppointmentDateTime());
+                appointment.setAppointmentDateTime(request.getAppointmentDateTime());
+                appointment.setBookedSlot(request.getAppointmentDateTime());
+                appointment = saveClaim(appointment);
+                availabilityService.markFreed(doctorId, previous);
+                eventPublisher.publishEvent(new SlotFreedEvent(doctorId, previous));
+                availabilityService.markBooked(doctorId, appointment.getAppointmentDateTime());
+                LocalDateTime rescheduled = appointment.getAppointmentDateTime();
+                afterCommit(() -> reminderService.appointmentScheduled(id, rescheduled));
+            }
+            if (request.getStatus() != null && request.getStatus() != appointment.getStatus()) {
+                applyStatus(appointment, request.getStatus());
+            }
+            
+            return mapToResponse(appointmentRepository.save(appointment));
+        });
+        return rescheduling ? withDoctorLock(doctorId, update) : update.get();
+    }
+    
+    @CacheEvict(value = "appointments", key = "#id")
+    public void cancelAppointment(Long id, Authentication authentication) {
+        User user = currentUser(authentication.getName());
+        transactionTemplate.executeWithoutResult(status -> {
+            Appointment appointment = findAppointment(id);
+            checkAccess(appointment, user);
+            if (CLOSED.contains(appointment.getStatus())) {
+                throw new BadRequestException("Appointment can no longer be cancelled");
+            }
+            applyStatus(appointment, AppointmentStatus.CANCELLED);
+            appointmentRepository.save(appointment);
+        });
+    }
+    
+    private void applyStatus(Appointment appointment, AppointmentStatus newStatus) {
+        appointment.setStatus(newStatus);
+        if (CLOSED.contains(newStatus)) {
+            Long appointmentId = appointment.getId();
+            afterCommit(() -> reminderService.appointmentClosed(appointmentId));
+        }
+        if (newStatus == AppointmentStatus.COMPLETED) {
+            appointment.setCompletedAt(LocalDateTime.now());
+        } else if (newStatus == AppointmentStatus.CANCELLED || newStatus == AppointmentStatus.NO_SHOW) {
+            // Give the slot back
+            appointment.setBookedSlot(null);
+            Long doctorId = appointment.getDoctor().getId();
+            LocalDateTime slot = appointment.getAppointmentDateTime();
+            availabilityService.markFreed(doctorId, slot);
+            if (newStatus == AppointmentStatus.CANCELLED) {
+                eventPublisher.publishEvent(new SlotFreedEvent(doctorId, slot));
+                User patient = appointment.getPatient();
+                afterCommit(() -> emailService.sendAppointmentCancellation(
+                        patient.getEmail(), patient.getFullName(), slot.toString()));
+            }
+        }
+    }
+    
+    /**
+     * Rejects times that are not the start of a slot in the doctor's schedule, and
+     * slots the availability bitmap already shows as taken.
+     */
+    private void checkSlot(Long doctorId, LocalDateTime slot) {
+        AvailabilityService.DaySlots day = availabilityService
+                .getDays(doctorId, slot.toLocalDate(), slot.toLocalDate()).get(0);
+        int index = day.slotOf(slot.toLocalTime());
+        if (index < 0 || !day.slotStart(index).equals(slot)) {
+            throw new BadRequestException("Requested time is not an available slot for this doctor");
+        }
+        if (!day.isFree(index)) {
+            throw new SlotUnavailableException("This slot is already booked");
+        }
+    }
+    
+    /**
+     * Must run before the appointment's bookedSlot is changed, or the auto-flush ahead
+     * of this query would write the change and find the appointment itself.
+     */
+    private void ensureSlotNotBooked(Long doctorId, LocalDateTime slot) {
+        if (appointmentRepository.existsByDoctorIdAndBookedSlot(doctorId, slot)) {
+            throw new SlotUnavailableException("This slot is already booked");
+        }
+    }
+    
+    private Appointment saveClaim(Appointment appointment) {
+        try {
+            return appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race to a booking on another node
+            throw new SlotUnavailableException("This slot is already booked");
+        }
+    }
+    
+    private <T> T withDoctorLock(Long doctorId, Supplier<T> action) {
+        ReentrantLock lock = doctorLocks.forKey(doctorId);
+        try {
+            if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("Booking is busy, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Booking was interrupted");
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private PageResponse<AppointmentDTO.Response> list(Specification<Appointment> criteria, int page, int size,
+                                                       String cursor, boolean includeTotal) {
+        if (cursor == null && page > 0) {
+            Page<Appointment> result = appointmentRepository.findBy(criteria, query -> query
+                    .project(LISTING_GRAPH)
+                    .sortBy(LISTING_SORT)
+                    .page(PageRequest.of(page, size)));
+            return PageResponse.<AppointmentDTO.Response>builder()
+                    .content(mapToResponses(result.getContent()))
+                    .pageNumber(result.getNumber())
+                    .pageSize(result.getSize())
+                    .totalElements(result.getTotalElements())
+                    .totalPages(result.getTotalPages())
+                    .last(result.isLast())
+                    .first(result.isFirst())
+                    .build();
+        }
+        
+        Specification<Appointment> seek = criteria;
+        if (cursor != null) {
+            String[] values = PageCursor.decode(cursor, CURSOR_KIND, 2);
+            seek = seek.and(before(PageCursor.parse(values[0], LocalDateTime::parse),
+                    PageCursor.parse(values[1], Long::valueOf)));
+        }
+        List<Appointment> rows = appointmentRepository.findBy(seek, query -> query
+                .project(LISTING_GRAPH)
+                .sortBy(LISTING_SORT)
+                .limit(size + 1)
+                .all());
+        return PageResponse.ofCursor(rows, size, cursor == null, this::mapToResponses,
+                appointment -> PageCursor.encode(CURSOR_KIND, appointment.getAppointmentDateTime(), appointment.getId()),
+                includeTotal ? appointmentRepository.count(criteria) : null);
+    }
+    
+    private Appointment findAppointment(Long id) {
+        return appointmentRepository.findWithPartiesById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
+    }
+    
+    private User currentUser(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+    
+    private Long doctorIdOf(User user) {
+        return doctorRepository.findByUserId(user.getId())
+                .map(Doctor::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor profile not found"));
+    }
+    
+    private void checkAccess(Appointment appointment, User user) {
+        boolean allowed = switch (user.getRole()) {
+            case ADMIN -> true;
+            case DOCTOR -> appointment.getDoctor().getUser().getId().equals(user.getId());
+            case PATIENT -> appointment.getPatient().getId().equals(user.getId());
+        };
+        if (!allowed) {
+            throw new AccessDeniedException("Not allowed to change this appointment");
+        }
+    }
+    
+    private void checkAccess(AppointmentDTO.Response appointment, User user) {
+        boolean allowed = switch (user.getRole()) {
+            case ADMIN -> true;
+            case DOCTOR -> doctorRepository.findByUserId(user.getId())
+                    .map(doctor -> doctor.getId().equals(appointment.getDoctorId()))
+                    .orElse(false);
+            case PATIENT -> appointment.getPatientId().equals(user.getId());
+        };
+        if (!allowed) {
+            throw new AccessDeniedException("Not allowed to view this appointment");
+        }
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    private List<AppointmentDTO.Response> mapToResponses(List<Appointment> appointments) {
+        return appointments.stream().map(this::mapToResponse).collect(Collectors.toList());
+    }
+    
+    private AppointmentDTO.Response mapToResponse(Appointment appointment) {
+        User patient = appointment.getPatient();
+        Doctor doctor = appointment.getDoctor();
+        return AppointmentDTO.Response.builder()
+                .id(appointment.getId())
+                .patientId(patient.getId())
+                .patientName(patient.getFullName())
+                .patientEmail(patient.getEmail())
+                .doctorId(doctor.getId())
+                .doctorName(doctor.getUser().getFullName())
+                .specialization(doctor.getSpecialization().name())
+                .appointmentDateTime(appointment.getAppointmentDateTime())
+                .appointmentType(appointment.getAppointmentType())
+                .status(appointment.getStatus())
+                .symptoms(appointment.getSymptoms())
+                .notes(appointment.getNotes())
+                .prescription(appointment.getPrescription())
+                .amount(appointment.getAmount())
+                .isPaid(appointment.getIsPaid())
+                .paymentId(appointment.getPaymentId())
+                .createdAt(appointment.getCreatedAt())
+                .completedAt(appointment.getCompletedAt())
+                .build();
+    }
+}
@@ -7,113 +7,154 @@ import com.medicare.model.User;
 import com.medicare.model.enums.UserRole;
 import com.medicare.repository.UserRepository;
 import com.medicare.security.CustomUserDetailsService;
+import com.medicare.security.PasswordHashingService;
 import com.medicare.util.JwtUtil;
-import lombok.RequiredArgsConstructor;
+import com.medicare.util.QueryCountInspector;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.*;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AuthService {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
-    private final AuthenticationManager authenticationManager;
-    private final CustomUserDetailsService userDetailsService;
     private final EmailService emailService;
+    private final CustomUserDetailsService userDetailsService;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary loginQueries;
+    
+    // Compared against when the email is unknown so both paths pay the same hashing cost
+    private volatile String dummyHash;
     
-    @Transactional
+    public AuthService(UserRepository userRepository,
+                       PasswordHashingService passwordHashingService,
+                       JwtUtil jwtUtil,
+                       EmailService emailService,
+                       CustomUserDetailsService userDetailsService,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.jwtUtil = jwtUtil;
+        this.emailService = emailService;
+        this.userDetailsService = userDetailsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loginQueries = DistributionSummary.builder("auth.login.queries")
+                .description("SQL statements executed per login")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Hashes the password before opening the transaction, so the slow hash never
+     * holds a connection; the transaction only re-checks the email and inserts.
+     */
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new BadRequestException("Email already registered");
         }
         
-        User user = User.builder()
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .fullName(request.getFullName())
-                .phone(request.getPhone())
-                .address(request.getAddress())
-                .role(UserRole.valueOf(request.getRole().toUpperCase()))
-                .build();
+        String encodedPassword = passwordHashingService.encode(request.getPassword());
         
-        user = userRepository.save(user);
+        User user = transactionTemplate.execute(status -> {
+            if (userRepository.existsByEmail(request.getEmail())) {
+                throw new BadRequestException("Email already registered");
+            }
+            return userRepository.save(User.builder()
+                    .email(request.getEmail())
+                    .password(encodedPassword)
+                    .fullName(request.getFullName())
+                    .phone(request.getPhone())
+                    .address(request.getAddress())
+                    .role(UserRole.valueOf(request.getRole().toUpperCase()))
+                    .build());
+        });
         
         // Send welcome email
         emailService.sendWelcomeEmail(user.getEmail(), user.getFullName());
         
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        String token = jwtUtil.generateToken(userDetails);
-        String refreshToken = jwtUtil.generateRefreshToken(userDetails);
-        
-        return AuthResponse.builder()
-                .token(token)
-                .refreshToken(refreshToken)
-                .userId(user.getId())
-                .email(user.getEmail())
-                .fullName(user.getFullName())
-                .role(user.getRole())
-                .build();
+        return buildAuthResponse(user, jwtUtil.generateToken(user), jwtUtil.generateRefreshToken(user));
     }
     
+    /**
+     * Loads the user once and carries the entity through password verification,
+     * the active check and token generation.
+     */
     public AuthResponse login(LoginRequest request) {
+        QueryCountInspector.reset();
         try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getEmail(),
-                            request.getPassword()
-                    )
-            );
-        } catch (BadCredentialsException e) {
-            throw new UnauthorizedException("Invalid email or password");
+            User user = userRepository.findByEmail(request.getEmail()).orElse(null);
+            
+            if (user == null) {
+                passwordHashingService.matches(request.getPassword(), getDummyHash());
+                throw new UnauthorizedException("Invalid email or password");
+            }
+            if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+                throw new UnauthorizedException("Invalid email or password");
+            }
+            if (!user.getIsActive()) {
+                throw new UnauthorizedException("Account is deactivated");
+            }
+            if (passwordHashingService.needsUpgrade(user.getPassword())) {
+                rehashPassword(user, request.getPassword());
+            }
+            
+            return buildAuthResponse(user, jwtUtil.generateToken(user), jwtUtil.generateRefreshToken(user));
+        } finally {
+            loginQueries.record(QueryCountInspector.current());
         }
-        
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        if (!user.getIsActive()) {
-            throw new UnauthorizedException("Account is deactivated");
-        }
-        
-        UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
-        String token = jwtUtil.generateToken(userDetails);
-        String refreshToken = jwtUtil.generateRefreshToken(userDetails);
-        
-        return AuthResponse.builder()
-                .token(token)
-                .refreshToken(refreshToken)
-                .userId(user.getId())
-                .email(user.getEmail())
-                .fullName(user.getFullName())
-                .role(user.getRole())
-                .build();
     }
     
     public AuthResponse refreshToken(RefreshTokenRequest request) {
         String email = jwtUtil.extractUsername(request.getRefreshToken());
-        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
         
-        if (!jwtUtil.validateToken(request.getRefreshToken(), userDetails)) {
+        if (!user.getIsActive() || !jwtUtil.validateToken(request.getRefreshToken(), user)) {
             throw new UnauthorizedException("Invalid refresh token");
         }
         
-        String newToken = jwtUtil.generateToken(userDetails);
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long tokenEpoch = jwtUtil.extractSecurityEpoch(request.getRefreshToken());
+        if (tokenEpoch != null && !tokenEpoch.equals(user.getSecurityEpoch())) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
         
+        return buildAuthResponse(user, jwtUtil.generateToken(user), request.getRefreshToken());
+    }
+    
+    private AuthResponse buildAuthResponse(User user, String token, String refreshToken) {
         return AuthResponse.builder()
-                .token(newToken)
-                .refreshToken(request.getRefreshToken())
+                .token(token)
+                .refreshToken(refreshToken)
                 .userId(user.getId())
                 .email(user.getEmail())
                 .fullName(user.getFullName())
                 .role(user.getRole())
                 .build();
     }
+    
+    private void rehashPassword(User user, String rawPassword) {
+        try {
+            userRepository.updatePassword(user.getId(), passwordHashingService.encode(rawPassword));
+            // Same password under a new work factor: the user's other sessions stay valid,
+            // so the security epoch is left alone
+            userDetailsService.evictUser(user.getEmail());
+            log.info("Upgraded password hash for user: {}", user.getId());
+        } catch (ServiceUnavailableException e) {
+            // The login itself succeeded; the upgrade is retried on the next one
+            log.debug("Skipped password rehash for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+    
+    private String getDummyHash() {
+        if (dummyHash == null) {
+            dummyHash = passwordHashingService.encode("medicare-dummy-password");
+        }
+        return dummyHash;
+    }
 }
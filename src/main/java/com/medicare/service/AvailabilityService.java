@@ -0,0 +1,429 @@
+package com.medicare.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medicare.cache.CacheInvalidationMessage;
+import com.medicare.cache.CacheInvalidationTransport;
+import com.medicare.dto.DoctorDTO;
+import com.medicare.exception.BadRequestException;
+import com.medicare.exception.ResourceNotFoundException;
+import com.medicare.model.Appointment;
+import com.medicare.model.Doctor;
+import com.medicare.model.DoctorSchedule;
+import com.medicare.repository.AppointmentRepository;
+import com.medicare.repository.DoctorRepository;
+import com.medicare.repository.DoctorScheduleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Free/busy slots per doctor and day. A day is the doctor's schedule for that weekday
+ * expanded into fixed-length slots, with one busy bit per slot set from the
+ * appointments that are not cancelled. Days are cached and patched in place when an
+ * appointment is booked or cancelled; other nodes drop the doctor's days instead.
+ *
+ * A load that overlaps a patch for the same doctor is returned but not cached, so a
+ * read that started before a booking committed cannot overwrite the patched day.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityService {
+    
+    static final String CACHE_NAME = "availability";
+    private static final int ALTERNATIVE_DAYS = 7;
+    
+    private final DoctorRepository doctorRepository;
+    private final DoctorScheduleRepository scheduleRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final CacheInvalidationTransport invalidationTransport;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${availability.cache.max-size:20000}")
+    private long maxSize;
+    
+    @Value("${availability.cache.ttl-minutes:10}")
+    private long ttlMinutes;
+    
+    @Value("${availability.max-range-days:31}")
+    private int maxRangeDays;
+    
+    private Cache<DayKey, DaySlots> days;
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void init() {
+        // The TTL is only a safety net; bookings and cancellations patch or evict
+        days = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, days, CACHE_NAME, "cache.manager", "availabilityService");
+        invalidationTransport.subscribe(this::onInvalidation);
+    }
+    
+    public List<DoctorDTO.DayAvailability> getAvailability(Long doctorId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("'to' must not be before 'from'");
+        }
+        if (from.plusDays(maxRangeDays).isBefore(to.plusDays(1))) {
+            throw new BadRequestException("Availability can be requested for at most " + maxRangeDays + " days");
+        }
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found"));
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<DoctorDTO.DayAvailability> result = new ArrayList<>();
+        for (DaySlots day : getDays(doctorId, from, to)) {
+            List<LocalTime> free = new ArrayList<>();
+            if (Boolean.TRUE.equals(doctor.getIsAvailable())) {
+                for (int slot = day.nextFree(0); slot >= 0; slot = day.nextFree(slot + 1)) {
+                    if (day.slotStart(slot).isAfter(now)) {
+                        free.add(day.slotTime(slot));
+                    }
+                }
+            }
+            result.add(DoctorDTO.DayAvailability.builder()
+                    .date(day.date())
+                    .slotDurationMinutes(day.slotMinutes())
+                    .freeSlots(free)
+                    .build());
+        }
+        return result;
+    }
+    
+    /**
+     * Days from..to inclusive, in order, reading the cache first and loading all
+     * missing days with one schedule lookup and one appointment query.
+     */
+    public List<DaySlots> getDays(Long doctorId, LocalDate from, LocalDate to) {
+        List<DayKey> keys = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            keys.add(new DayKey(doctorId, date));
+        }
+        Map<DayKey, DaySlots> present = days.getAllPresent(keys);
+        Map<DayKey, DaySlots> loaded = present.size() < keys.size()
+                ? load(doctorId, keys.stream().filter(key -> !present.containsKey(key)).toList())
+                : Map.of();
+        
+        List<DaySlots> result = new ArrayList<>(keys.size());
+        for (DayKey key : keys) {
+            DaySlots day = present.get(key);
+            result.add(day != null ? day : loaded.get(key));
+        }
+        return result;
+    }
+    
+    /**
+     * The earliest free slots across the given doctors, in time order, from a lazy
+     * k-way merge: each doctor contributes an iterator over its own free slots and
+     * only the head of each iterator is materialized. Days are loaded in growing
+     * chunks as an iterator moves forward, so the work beyond the first slot of each
+     * doctor is proportional to the number of results.
+     */
+    public List<DoctorDTO.NextSlot> findEarliestSlots(Collection<Doctor> doctors, LocalDateTime notBefore,
+                                                      int limit) {
+        LocalDate horizon = notBefore.toLocalDate().plusDays(maxRangeDays - 1);
+        PriorityQueue<SlotIterator> heads = new PriorityQueue<>(Comparator
+                .comparing(SlotIterator::current)
+                .thenComparing(iterator -> -iterator.doctor.getRating())
+                .thenComparing(iterator -> iterator.doctor.getId()));
+        for (Doctor doctor : doctors) {
+            SlotIterator iterator = new SlotIterator(doctor, notBefore, horizon);
+            if (iterator.advance()) {
+                heads.add(iterator);
+            }
+        }
+        
+        List<DoctorDTO.NextSlot> result = new ArrayList<>();
+        while (result.size() < limit && !heads.isEmpty()) {
+            SlotIterator head = heads.poll();
+            Doctor doctor = head.doctor;
+            result.add(DoctorDTO.NextSlot.builder()
+                    .doctorId(doctor.getId())
+                    .doctorName(doctor.getUser().getFullName())
+                    .specialization(doctor.getSpecialization())
+                    .consultationFee(doctor.getConsultationFee())
+                    .rating(doctor.getRating())
+                    .slot(head.current())
+                    .slotDurationMinutes(head.day.slotMinutes())
+                    .build());
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Free slots of one doctor nearest after the given time (or from now, if that is
+     * later), skipping the time itself; offered to a patient whose pick was taken.
+     */
+    public List<LocalDateTime> findAlternatives(Long doctorId, LocalDateTime requested, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = requested.toLocalDate().atStartOfDay().isAfter(now)
+                ? requested.toLocalDate().atStartOfDay()
+                : now;
+        List<LocalDateTime> result = new ArrayList<>();
+        for (DaySlots day : getDays(doctorId, from.toLocalDate(), from.toLocalDate().plusDays(ALTERNATIVE_DAYS - 1))) {
+            for (int slot = day.nextFree(0); slot >= 0 && result.size() < limit; slot = day.nextFree(slot + 1)) {
+                LocalDateTime start = day.slotStart(slot);
+                if (start.isAfter(from) && !start.equals(requested)) {
+                    result.add(start);
+                }
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+    
+    public void markBooked(Long doctorId, LocalDateTime appointmentDateTime) {
+        patchAfterCommit(doctorId, appointmentDateTime, true);
+    }
+    
+    public void markFreed(Long doctorId, LocalDateTime appointmentDateTime) {
+        patchAfterCommit(doctorId, appointmentDateTime, false);
+    }
+    
+    /**
+     * Drops every cached day of a doctor, here and on other nodes; used when the
+     * schedule itself changes.
+     */
+    public void evictDoctor(Long doctorId) {
+        evictLocally(doctorId);
+        invalidationTransport.publish(new CacheInvalidationMessage(
+                invalidationTransport.getNodeId(), CACHE_NAME, doctorId));
+    }
+    
+    private Map<DayKey, DaySlots> load(Long doctorId, List<DayKey> missing) {
+        AtomicLong generation = generation(doctorId);
+        long startGeneration = generation.get();
+        
+        LocalDate first = missing.get(0).date();
+        LocalDate last = missing.get(missing.size() - 1).date();
+        Map<DayOfWeek, DoctorSchedule> schedules = new EnumMap<>(DayOfWeek.class);
+        for (DoctorSchedule schedule : scheduleRepository.findByDoctorId(doctorId)) {
+            if (Boolean.TRUE.equals(schedule.getIsAvailable())) {
+                schedules.put(schedule.getDayOfWeek(), schedule);
+            }
+        }
+        List<Appointment> appointments = schedules.isEmpty() ? List.of()
+                : appointmentRepository.findDoctorAppointmentsInDateRange(
+                        doctorId, first.atStartOfDay(), last.plusDays(1).atStartOfDay().minusNanos(1));
+        
+        Map<DayKey, DaySlots> loaded = new HashMap<>();
+        for (DayKey key : missing) {
+            DoctorSchedule schedule = schedules.get(key.date().getDayOfWeek());
+            loaded.put(key, schedule != null
+                    ? DaySlots.open(key.date(), schedule.getStartTime(), schedule.getEndTime(),
+                            schedule.getSlotDurationMinutes())
+                    : DaySlots.closed(key.date()));
+        }
+        for (Appointment appointment : appointments) {
+            DayKey key = new DayKey(doctorId, appointment.getAppointmentDateTime().toLocalDate());
+            DaySlots day = loaded.get(key);
+            if (day != null) {
+                int slot = day.slotOf(appointment.getAppointmentDateTime().toLocalTime());
+                if (slot >= 0) {
+                    loaded.put(key, day.withBusy(slot, true));
+                }
+            }
+        }
+        
+        synchronized (generation) {
+            if (generation.get() == startGeneration) {
+                days.putAll(loaded);
+            }
+        }
+        return loaded;
+    }
+    
+    private void patchAfterCommit(Long doctorId, LocalDateTime appointmentDateTime, boolean busy) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            patch(doctorId, appointmentDateTime, busy);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                patch(doctorId, appointmentDateTime, busy);
+            }
+        });
+    }
+    
+    private void patch(Long doctorId, LocalDateTime appointmentDateTime, boolean busy) {
+        AtomicLong generation = generation(doctorId);
+        synchronized (generation) {
+            generation.incrementAndGet();
+            days.asMap().computeIfPresent(new DayKey(doctorId, appointmentDateTime.toLocalDate()), (key, day) -> {
+                int slot = day.slotOf(appointmentDateTime.toLocalTime());
+                return slot >= 0 ? day.withBusy(slot, busy) : day;
+            });
+        }
+        invalidationTransport.publish(new CacheInvalidationMessage(
+                invalidationTransport.getNodeId(), CACHE_NAME, doctorId));
+    }
+    
+    private void onInvalidation(CacheInvalidationMessage message) {
+        if (CacheInvalidationMessage.ALL_CACHES.equals(message.cacheName())) {
+            days.invalidateAll();
+        } else if (CACHE_NAME.equals(message.cacheName()) && message.key() instanceof Long doctorId) {
+            evictLocally(doctorId);
+        }
+    }
+    
+    private void evictLocally(Long doctorId) {
+        AtomicLong generation = generation(doctorId);
+        synchronized (generation) {
+            generation.incrementAndGet();
+            days.asMap().keySet().removeIf(key -> key.doctorId().equals(doctorId));
+        }
+    }
+    
+    private AtomicLong generation(Long doctorId) {
+        return generations.computeIfAbsent(doctorId, id -> new AtomicLong());
+    }
+    
+    private record DayKey(Long doctorId, LocalDate date) {
+    }
+    
+    /**
+     * Walks one doctor's free slots in time order, fetching days on demand in chunks
+     * that double up to a week.
+     */
+    private final class SlotIterator {
+        private static final int MAX_CHUNK_DAYS = 7;
+        
+        private final Doctor doctor;
+        private final LocalDateTime notBefore;
+        private final LocalDate horizon;
+        private final Deque<DaySlots> pending = new ArrayDeque<>();
+        private LocalDate loadedThrough;
+        private int chunkDays = 1;
+        private DaySlots day;
+        private int slot;
+        private LocalDateTime current;
+        
+        SlotIterator(Doctor doctor, LocalDateTime notBefore, LocalDate horizon) {
+            this.doctor = doctor;
+            this.notBefore = notBefore;
+            this.horizon = horizon;
+            this.loadedThrough = notBefore.toLocalDate().minusDays(1);
+        }
+        
+        LocalDateTime current() {
+            return current;
+        }
+        
+        boolean advance() {
+            while (true) {
+                if (day != null) {
+                    slot = day.nextFree(slot + 1);
+                    while (slot >= 0 && !day.slotStart(slot).isAfter(notBefore)) {
+                        slot = day.nextFree(slot + 1);
+                    }
+                    if (slot >= 0) {
+                        current = day.slotStart(slot);
+                        return true;
+                    }
+                    day = null;
+                }
+                if (pending.isEmpty()) {
+                    if (!loadedThrough.isBefore(horizon)) {
+                        return false;
+                    }
+                    LocalDate from = loadedThrough.plusDays(1);
+                    LocalDate to = from.plusDays(chunkDays - 1);
+                    if (to.isAfter(horizon)) {
+                        to = horizon;
+                    }
+                    pending.addAll(getDays(doctor.getId(), from, to));
+                    loadedThrough = to;
+                    chunkDays = Math.min(chunkDays * 2, MAX_CHUNK_DAYS);
+                }
+                day = pending.poll();
+                slot = -1;
+            }
+        }
+    }
+    
+    /**
+     * One doctor-day: slotCount slots of slotMinutes starting at start, with a set bit
+     * for every busy slot. Immutable; patches return a copy.
+     */
+    public record DaySlots(LocalDate date, LocalTime start, int slotMinutes, int slotCount, long[] busy) {
+        
+        static DaySlots open(LocalDate date, LocalTime start, LocalTime end, int slotMinutes) {
+            int minutes = (int) Duration.between(start, end).toMinutes();
+            int slotCount = slotMinutes > 0 ? Math.max(minutes / slotMinutes, 0) : 0;
+            return new DaySlots(date, start, slotMinutes, slotCount, new long[(slotCount + 63) / 64]);
+        }
+        
+        static DaySlots closed(LocalDate date) {
+            return new DaySlots(date, LocalTime.MIDNIGHT, 0, 0, new long[0]);
+        }
+        
+        /**
+         * The slot a time falls into, or -1 when it is outside the working hours.
+         */
+        public int slotOf(LocalTime time) {
+            if (slotCount == 0 || time.isBefore(start)) {
+                return -1;
+            }
+            int slot = (int) (Duration.between(start, time).toMinutes() / slotMinutes);
+            return slot < slotCount ? slot : -1;
+        }
+        
+        public boolean isFree(int slot) {
+            return (busy[slot >>> 6] & (1L << slot)) == 0;
+        }
+        
+        /**
+         * The first free slot at or after fromSlot, or -1.
+         */
+        public int nextFree(int fromSlot) {
+            for (int slot = Math.max(fromSlot, 0); slot < slotCount; slot++) {
+                long word = ~busy[slot >>> 6] & (-1L << slot);
+                if (word != 0) {
+                    int candidate = (slot & ~63) + Long.numberOfTrailingZeros(word);
+                    return candidate < slotCount ? candidate : -1;
+                }
+                slot |= 63;
+            }
+            return -1;
+        }
+        
+        public LocalTime slotTime(int slot) {
+            return start.plusMinutes((long) slot * slotMinutes);
+        }
+        
+        public LocalDateTime slotStart(int slot) {
+            return date.atTime(slotTime(slot));
+        }
+        
+        DaySlots withBusy(int slot, boolean isBusy) {
+            long[] copy = busy.clone();
+            if (isBusy) {
+                copy[slot >>> 6] |= 1L << slot;
+            } else {
+                copy[slot >>> 6] &= ~(1L << slot);
+            }
+            return new DaySlots(date, start, slotMinutes, slotCount, copy);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.medicare.service;
+
+import com.medicare.dto.AppointmentDTO;
+import com.medicare.exception.ServiceUnavailableException;
+import com.medicare.exception.SlotUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Admission in front of the booking engine. Attempts are queued per doctor-day in a
+ * bounded FIFO lane and a single worker per lane drains them in batches, so a release
+ * spike turns into a steady trickle of bookings instead of hundreds of concurrent
+ * transactions. Within a batch only the first attempt on a slot reaches the
+ * database; the others, and anyone arriving at a full lane, are answered at once
+ * with alternative free slots.
+ *
+ * A worker handles one batch and then yields, so a hot lane cannot starve the rest.
+ *
+ * Each attempt is claimed by a worker (QUEUED -> RUNNING) before it is booked, and a
+ * caller whose wait runs out abandons it the same way (QUEUED -> ABANDONED). Only an
+ * attempt that was never claimed is answered with 503; a claimed one may still commit,
+ * so its caller waits for the outcome.
+ */
+@Service
+@Slf4j
+public class BookingAdmissionService {
+    
+    private final AppointmentService appointmentService;
+    private final AvailabilityService availabilityService;
+    private final MeterRegistry meterRegistry;
+    private final Counter booked;
+    private final Counter lost;
+    private final Counter rejected;
+    private final Counter timedOut;
+    
+    @Value("${booking.admission.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${booking.admission.queue-capacity:200}")
+    private int queueCapacity;
+    
+    @Value("${booking.admission.batch-size:20}")
+    private int batchSize;
+    
+    @Value("${booking.admission.workers:4}")
+    private int workers;
+    
+    @Value("${booking.admission.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+    
+    @Value("${booking.admission.alternatives:5}")
+    private int alternativeCount;
+    
+    private final Map<LaneKey, Lane> lanes = new ConcurrentHashMap<>();
+    private ThreadPoolTaskExecutor executor;
+    
+    public BookingAdmissionService(AppointmentService appointmentService,
+                                   AvailabilityService availabilityService,
+                                   MeterRegistry meterRegistry) {
+        this.appointmentService = appointmentService;
+        this.availabilityService = availabilityService;
+        this.meterRegistry = meterRegistry;
+        this.booked = outcome("booked");
+        this.lost = outcome("lost");
+        this.rejected = outcome("rejected");
+        this.timedOut = outcome("timeout");
+    }
+    
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("BookingAdmission-");
+        executor.initialize();
+        
+        Gauge.builder("booking.admission.lanes", lanes, Map::size)
+                .description("Doctor-days with queued booking attempts")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+    
+    public AppointmentDTO.Response book(AppointmentDTO.CreateRequest request, String email) {
+        if (!enabled) {
+            return appointmentService.bookAppointment(request, email);
+        }
+        
+        LaneKey key = new LaneKey(request.getDoctorId(), request.getAppointmentDateTime().toLocalDate());
+        Attempt attempt = new Attempt(request, email);
+        enqueue(key, attempt);
+        
+        try {
+            return attempt.result().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (TimeoutException e) {
+            if (attempt.abandon()) {
+                timedOut.increment();
+                throw new ServiceUnavailableException("Booking is taking too long, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (attempt.abandon()) {
+                throw new ServiceUnavailableException("Booking was interrupted");
+            }
+        }
+        // A worker is already booking it and a 503 now could hide a booking that commits,
+        // so wait for its outcome; join() keeps waiting through an interrupt
+        try {
+            return attempt.result().join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+    
+    private static RuntimeException unwrap(Throwable cause) {
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+    
+    private void enqueue(LaneKey key, Attempt attempt) {
+        while (true) {
+            Lane lane = lanes.computeIfAbsent(key, k -> new Lane());
+            boolean startWorker;
+            synchronized (lane) {
+                if (lane.closed) {
+                    // Retired between lookup and lock; a fresh lane replaces it
+                    continue;
+                }
+                if (lane.queue.size() >= queueCapacity) {
+                    rejected.increment();
+                    throw new SlotUnavailableException("Too many booking requests for this doctor and day",
+                            alternativesFor(attempt));
+                }
+                lane.queue.add(attempt);
+                startWorker = !lane.draining;
+                lane.draining = true;
+            }
+            if (startWorker) {
+                executor.execute(() -> drain(key, lane));
+            }
+            return;
+        }
+    }
+    
+    private void drain(LaneKey key, Lane lane) {
+        List<Attempt> batch = new ArrayList<>(batchSize);
+        synchronized (lane) {
+            while (batch.size() < batchSize && !lane.queue.isEmpty()) {
+                batch.add(lane.queue.poll());
+            }
+        }
+        
+        try {
+            process(batch);
+        } finally {
+            boolean more;
+            synchronized (lane) {
+                more = !lane.queue.isEmpty();
+                if (!more) {
+                    lane.draining = false;
+                    lane.closed = true;
+                    lanes.remove(key, lane);
+                }
+            }
+            if (more) {
+                executor.execute(() -> drain(key, lane));
+            }
+        }
+    }
+    
+    private void process(List<Attempt> batch) {
+        Set<LocalDateTime> taken = new HashSet<>();
+        for (Attempt attempt : batch) {
+            // Fails only when the caller has already given up waiting
+            if (!attempt.claim()) {
+                continue;
+            }
+            LocalDateTime slot = attempt.request().getAppointmentDateTime();
+            if (taken.contains(slot)) {
+                lose(attempt);
+                continue;
+            }
+            try {
+                attempt.result().complete(appointmentService.bookAppointment(attempt.request(), attempt.email()));
+                taken.add(slot);
+                booked.increment();
+            } catch (SlotUnavailableException e) {
+                taken.add(slot);
+                lose(attempt);
+            } catch (RuntimeException e) {
+                attempt.result().completeExceptionally(e);
+            }
+        }
+    }
+    
+    private void lose(Attempt attempt) {
+        lost.increment();
+        attempt.result().completeExceptionally(
+                new SlotUnavailableException("This slot is already booked", alternativesFor(attempt)));
+    }
+    
+    private List<LocalDateTime> alternativesFor(Attempt attempt) {
+        try {
+            return availabilityService.findAlternatives(attempt.request().getDoctorId(),
+                    attempt.request().getAppointmentDateTime(), alternativeCount);
+        } catch (RuntimeException e) {
+            log.warn("Could not compute alternative slots for doctor {}", attempt.request().getDoctorId(), e);
+            return List.of();
+        }
+    }
+    
+    private Counter outcome(String outcome) {
+        return Counter.builder("booking.admission")
+                .description("Booking attempts by admission outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+    
+    private record LaneKey(Long doctorId, LocalDate date) {
+    }
+    
+    private enum AttemptState {
+        QUEUED, RUNNING, ABANDONED
+    }
+    
+    private record Attempt(AppointmentDTO.CreateRequest request, String email,
+                           CompletableFuture<AppointmentDTO.Response> result,
+                           AtomicReference<AttemptState> state) {
+        
+        private Attempt(AppointmentDTO.CreateRequest request, String email) {
+            this(request, email, new CompletableFuture<>(), new AtomicReference<>(AttemptState.QUEUED));
+        }
+        
+        boolean claim() {
+            return state.compareAndSet(AttemptState.QUEUED, AttemptState.RUNNING);
+        }
+        
+        boolean abandon() {
+            return state.compareAndSet(AttemptState.QUEUED, AttemptState.ABANDONED);
+        }
+    }
+    
+    private static class Lane {
+        private final Deque<Attempt> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+    }
+}
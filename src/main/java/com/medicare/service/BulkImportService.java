@@ -0,0 +1,260 @@
+package com.medicare.service;
+
+import com.medicare.dto.ImportDTO;
+import com.medicare.exception.BadRequestException;
+import com.medicare.model.Appointment;
+import com.medicare.model.Doctor;
+import com.medicare.model.DoctorSchedule;
+import com.medicare.model.User;
+import com.medicare.model.enums.AppointmentStatus;
+import com.medicare.model.enums.UserRole;
+import com.medicare.repository.AppointmentRepository;
+import com.medicare.repository.DoctorRepository;
+import com.medicare.repository.DoctorScheduleRepository;
+import com.medicare.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Imports appointments and schedules of clinics moving onto the platform. Rows are
+ * checked up front against a handful of set-based lookups (patients by email,
+ * doctors by id, booked slots in the covered range) instead of per-row queries, and
+ * valid rows are written in chunks of one transaction each. With pooled sequence ids
+ * and hibernate.jdbc.batch_size the inserts of a chunk go out as JDBC batches.
+ *
+ * Invalid rows are reported back by index and do not stop the import. The same goes
+ * for a chunk that hits a constraint at write time, e.g. a slot booked in the meantime:
+ * it is rolled back and its rows are reported, while the other chunks still go in.
+ */
+@Service
+@Slf4j
+public class BulkImportService {
+    
+    private static final Set<AppointmentStatus> SLOT_RELEASED =
+            EnumSet.of(AppointmentStatus.CANCELLED, AppointmentStatus.NO_SHOW);
+    
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorScheduleRepository scheduleRepository;
+    private final UserRepository userRepository;
+    private final AvailabilityService availabilityService;
+    private final ReminderService reminderService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxRows;
+    
+    public BulkImportService(AppointmentRepository appointmentRepository,
+                             DoctorRepository doctorRepository,
+                             DoctorScheduleRepository scheduleRepository,
+                             UserRepository userRepository,
+                             AvailabilityService availabilityService,
+                             ReminderService reminderService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${bulk-import.chunk-size:500}") int chunkSize,
+                             @Value("${bulk-import.max-rows:50000}") int maxRows) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.userRepository = userRepository;
+        this.availabilityService = availabilityService;
+        this.reminderService = reminderService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+    
+    public ImportDTO.Result importAppointments(List<ImportDTO.AppointmentRow> rows) {
+        checkSize(rows);
+        Map<String, User> patients = userRepository.findByEmailIn(rows.stream()
+                        .map(ImportDTO.AppointmentRow::getPatientEmail)
+                        .collect(Collectors.toSet())).stream()
+                .filter(user -> user.getRole() == UserRole.PATIENT)
+                .collect(Collectors.toMap(User::getEmail, Function.identity()));
+        Map<Long, Doctor> doctors = doctorsById(rows.stream().map(ImportDTO.AppointmentRow::getDoctorId));
+        Set<SlotKey> booked = bookedSlots(rows, doctors.keySet());
+        
+        List<ImportDTO.RowError> rejected = new ArrayList<>();
+        List<Appointment> appointments = new ArrayList<>();
+        List<Integer> appointmentRows = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ImportDTO.AppointmentRow row = rows.get(i);
+            User patient = patients.get(row.getPatientEmail());
+            Doctor doctor = doctors.get(row.getDoctorId());
+            AppointmentStatus status = row.getStatus() != null ? row.getStatus() : AppointmentStatus.SCHEDULED;
+            boolean holdsSlot = !SLOT_RELEASED.contains(status);
+            if (patient == null) {
+                rejected.add(new ImportDTO.RowError(i, "Unknown patient " + row.getPatientEmail()));
+            } else if (doctor == null) {
+                rejected.add(new ImportDTO.RowError(i, "Unknown doctor " + row.getDoctorId()));
+            } else if (holdsSlot && !booked.add(new SlotKey(doctor.getId(), row.getAppointmentDateTime()))) {
+                rejected.add(new ImportDTO.RowError(i, "Doctor already has an appointment at "
+                        + row.getAppointmentDateTime()));
+            } else {
+                appointments.add(Appointment.builder()
+                        .patient(patient)
+                        .doctor(doctor)
+                        .appointmentDateTime(row.getAppointmentDateTime())
+                        .bookedSlot(holdsSlot ? row.getAppointmentDateTime() : null)
+                        .appointmentType(row.getAppointmentType())
+                        .status(status)
+                        .symptoms(row.getSymptoms())
+                        .notes(row.getNotes())
+                        .prescription(row.getPrescription())
+                        .amount(row.getAmount() != null ? row.getAmount() : doctor.getConsultationFee())
+                        .isPaid(Boolean.TRUE.equals(row.getIsPaid()))
+                        .completedAt(status == AppointmentStatus.COMPLETED ? row.getAppointmentDateTime() : null)
+                        .build());
+                appointmentRows.add(i);
+            }
+        }
+        
+        List<Appointment> saved = saveInChunks(appointments, appointmentRows, appointmentRepository::saveAll, rejected);
+        rejected.sort(Comparator.comparingInt(ImportDTO.RowError::getRow));
+        saved.stream().map(appointment -> appointment.getDoctor().getId()).distinct()
+                .forEach(availabilityService::evictDoctor);
+        // Only appointments close enough to be in the reminder window need this
+        saved.stream()
+                .filter(appointment -> appointment.getStatus() == AppointmentStatus.SCHEDULED
+                        || appointment.getStatus() == AppointmentStatus.CONFIRMED)
+                .forEach(appointment -> reminderService.appointmentScheduled(
+                        appointment.getId(), appointment.getAppointmentDateTime()));
+        log.info("Imported {} of {} appointments", saved.size(), rows.size());
+        return new ImportDTO.Result(rows.size(), saved.size(), 0, rejected);
+    }
+    
+    /**
+     * Upserts one schedule per doctor and weekday; a row for a day that already has a
+     * schedule replaces its hours. Runs as one transaction: schedules are at most seven
+     * per doctor, and editing the loaded rows in place lets the updates batch as well.
+     */
+    public ImportDTO.Result importSchedules(List<ImportDTO.ScheduleRow> rows) {
+        checkSize(rows);
+        List<ImportDTO.RowError> rejected = new ArrayList<>();
+        Set<Long> touchedDoctors = new HashSet<>();
+        int[] counts = new int[2];
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Doctor> doctors = doctorsById(rows.stream().map(ImportDTO.ScheduleRow::getDoctorId));
+            Map<ScheduleKey, DoctorSchedule> schedules = new HashMap<>();
+            if (!doctors.isEmpty()) {
+                for (DoctorSchedule schedule : scheduleRepository.findByDoctorIdIn(doctors.keySet())) {
+                    schedules.put(new ScheduleKey(schedule.getDoctor().getId(), schedule.getDayOfWeek()), schedule);
+                }
+            }
+            
+            List<DoctorSchedule> created = new ArrayList<>();
+            Set<DoctorSchedule> updated = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = 0; i < rows.size(); i++) {
+                ImportDTO.ScheduleRow row = rows.get(i);
+                Doctor doctor = doctors.get(row.getDoctorId());
+                if (doctor == null) {
+                    rejected.add(new ImportDTO.RowError(i, "Unknown doctor " + row.getDoctorId()));
+                    continue;
+                }
+                if (!row.getEndTime().isAfter(row.getStartTime())) {
+                    rejected.add(new ImportDTO.RowError(i, "End time must be after start time"));
+                    continue;
+                }
+                DoctorSchedule schedule = schedules.computeIfAbsent(new ScheduleKey(doctor.getId(), row.getDayOfWeek()),
+                        key -> {
+                            DoctorSchedule fresh = DoctorSchedule.builder()
+                                    .doctor(doctor)
+                                    .dayOfWeek(row.getDayOfWeek())
+                                    .build();
+                            created.add(fresh);
+                            return fresh;
+                        });
+                schedule.setStartTime(row.getStartTime());
+                schedule.setEndTime(row.getEndTime());
+                schedule.setSlotDurationMinutes(row.getSlotDurationMinutes());
+                schedule.setIsAvailable(row.getIsAvailable() == null || row.getIsAvailable());
+                if (schedule.getId() != null) {
+                    updated.add(schedule);
+                }
+                touchedDoctors.add(doctor.getId());
+            }
+            // Loaded schedules are managed and flush as batched updates on commit
+            scheduleRepository.saveAll(created);
+            counts[0] = created.size();
+            counts[1] = updated.size();
+        });
+        
+        touchedDoctors.forEach(availabilityService::evictDoctor);
+        log.info("Imported schedules from {} rows: {} new, {} updated", rows.size(), counts[0], counts[1]);
+        return new ImportDTO.Result(rows.size(), counts[0], counts[1], rejected);
+    }
+    
+    private void checkSize(List<?> rows) {
+        if (rows.size() > maxRows) {
+            throw new BadRequestException("At most " + maxRows + " rows can be imported at once");
+        }
+    }
+    
+    private Map<Long, Doctor> doctorsById(Stream<Long> ids) {
+        return doctorRepository.findAllById(ids.collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Doctor::getId, Function.identity()));
+    }
+    
+    /**
+     * Slots already held in the database for the imported doctors, over the time
+     * range the rows cover, read in one query.
+     */
+    private Set<SlotKey> bookedSlots(List<ImportDTO.AppointmentRow> rows, Set<Long> doctorIds) {
+        Set<SlotKey> booked = new HashSet<>();
+        if (doctorIds.isEmpty()) {
+            return booked;
+        }
+        LocalDateTime start = rows.stream().map(ImportDTO.AppointmentRow::getAppointmentDateTime)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime end = rows.stream().map(ImportDTO.AppointmentRow::getAppointmentDateTime)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        for (Object[] row : appointmentRepository.findBookedSlots(doctorIds, start, end)) {
+            booked.add(new SlotKey((Long) row[0], (LocalDateTime) row[1]));
+        }
+        return booked;
+    }
+    
+    /**
+     * One transaction per chunk keeps the persistence context, and the work lost to a
+     * failure, bounded. A chunk that violates a constraint is rolled back and each of
+     * its rows (rowIndexes runs parallel to entities) is added to rejected. Returns the
+     * entities that were saved.
+     */
+    private <T> List<T> saveInChunks(List<T> entities, List<Integer> rowIndexes,
+                                     Function<List<T>, List<T>> saveAll, List<ImportDTO.RowError> rejected) {
+        List<T> saved = new ArrayList<>(entities.size());
+        for (int from = 0; from < entities.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, entities.size());
+            List<T> chunk = entities.subList(from, to);
+            try {
+                transactionTemplate.executeWithoutResult(status -> saveAll.apply(chunk));
+                saved.addAll(chunk);
+            } catch (DataIntegrityViolationException e) {
+                List<Integer> chunkRows = rowIndexes.subList(from, to);
+                log.warn("Import chunk of rows {} to {} rolled back: {}", chunkRows.get(0),
+                        chunkRows.get(chunkRows.size() - 1), e.getMostSpecificCause().getMessage());
+                String reason = "Conflicts with existing data; rolled back with rows "
+                        + chunkRows.get(0) + " to " + chunkRows.get(chunkRows.size() - 1);
+                chunkRows.forEach(row -> rejected.add(new ImportDTO.RowError(row, reason)));
+            }
+        }
+        return saved;
+    }
+    
+    private record SlotKey(Long doctorId, LocalDateTime slot) {
+    }
+    
+    private record ScheduleKey(Long doctorId, DayOfWeek dayOfWeek) {
+    }
+}
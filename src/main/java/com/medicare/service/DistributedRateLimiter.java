@@ -0,0 +1,184 @@
+package com.medicare.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.medicare.model.RateLimitBucket;
+import com.medicare.repository.RateLimitBucketRepository;
+import com.medicare.service.RateLimiterService.RateLimitResult;
+import com.medicare.service.RateLimiterService.TierLimit;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide token buckets kept in the shared database, so a client's limit does
+ * not scale with the node count. Each node claims a small batch of tokens per key
+ * (rate.limit.jdbc.reservation-size) and spends it locally, so only one request in
+ * a batch pays the database round-trip. A reservation size of 1 makes every
+ * request consult the database.
+ *
+ * Tokens a node reserved but did not spend go back to the shared row, either with
+ * the node's next claim for the key or when the idle reservation is evicted, so an
+ * expired reservation does not leave them stranded.
+ */
+@Service
+@ConditionalOnProperty(name = "rate.limit.backend", havingValue = "jdbc")
+@Slf4j
+public class DistributedRateLimiter {
+    
+    private final RateLimitBucketRepository bucketRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${rate.limit.jdbc.reservation-size:10}")
+    private long reservationSize;
+    
+    @Value("${rate.limit.jdbc.reservation-ttl-ms:1000}")
+    private long reservationTtlMs;
+    
+    @Value("${rate.limit.max-buckets:100000}")
+    private long maxBuckets;
+    
+    private Cache<String, Reservation> reservations;
+    
+    public DistributedRateLimiter(RateLimitBucketRepository bucketRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.bucketRepository = bucketRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    @PostConstruct
+    void init() {
+        // The scheduler evicts idle reservations on time, handing their tokens back
+        reservations = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofMillis(reservationTtlMs))
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String key, Reservation reservation, RemovalCause cause) -> {
+                    if (key != null && reservation != null) {
+                        retire(key, reservation);
+                    }
+                })
+                .build();
+    }
+    
+    RateLimitResult tryConsume(String bucketKey, TierLimit limit) {
+        while (true) {
+            Reservation reservation = reservations.get(bucketKey, k -> new Reservation(limit.capacity()));
+            synchronized (reservation) {
+                // A retired reservation has already been evicted; fetch the fresh one
+                if (!reservation.retired) {
+                    return tryConsume(bucketKey, limit, reservation);
+                }
+            }
+        }
+    }
+    
+    private RateLimitResult tryConsume(String bucketKey, TierLimit limit, Reservation reservation) {
+        long now = System.currentTimeMillis();
+        if (reservation.tokens > 0 && now < reservation.expiresAt) {
+            reservation.tokens--;
+            return RateLimitResult.consumed(reservation.tokens + reservation.remainingInStore);
+        }
+        
+        // Whatever is left of an expired reservation is returned with the new claim
+        long unused = reservation.tokens;
+        Grant grant;
+        try {
+            grant = claim(bucketKey, limit, Math.max(1, Math.min(reservationSize, limit.capacity())), unused);
+        } catch (DataAccessException e) {
+            // Fail open: an unreachable store must not take the whole API down with it
+            log.warn("Rate limit store unavailable, allowing request for key: {}", bucketKey, e);
+            return RateLimitResult.consumed(0);
+        }
+        reservation.tokens = grant.granted() == 0 ? 0 : grant.granted() - 1;
+        reservation.remainingInStore = grant.remaining();
+        reservation.expiresAt = now + reservationTtlMs;
+        if (grant.granted() == 0) {
+            return RateLimitResult.rejected(TimeUnit.MILLISECONDS.toNanos(grant.millisToRefill()));
+        }
+        return RateLimitResult.consumed(reservation.tokens + grant.remaining());
+    }
+    
+    private void retire(String bucketKey, Reservation reservation) {
+        long unused;
+        synchronized (reservation) {
+            reservation.retired = true;
+            unused = reservation.tokens;
+            reservation.tokens = 0;
+        }
+        if (unused == 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> bucketRepository.findForUpdate(bucketKey)
+                    .ifPresent(bucket -> bucket.setAvailableTokens(
+                            Math.min(reservation.capacity, bucket.getAvailableTokens() + unused))));
+        } catch (DataAccessException e) {
+            log.warn("Could not return {} reserved tokens for key: {}", unused, bucketKey, e);
+        }
+    }
+    
+    private Grant claim(String bucketKey, TierLimit limit, long requested, long returned) {
+        try {
+            return transactionTemplate.execute(status -> claimInTransaction(bucketKey, limit, requested, returned));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the row first; it exists now, so lock and retry
+            return transactionTemplate.execute(status -> claimInTransaction(bucketKey, limit, requested, returned));
+        }
+    }
+    
+    private Grant claimInTransaction(String bucketKey, TierLimit limit, long requested, long returned) {
+        long now = System.currentTimeMillis();
+        long intervalMs = limit.duration().toMillis();
+        
+        RateLimitBucket bucket = bucketRepository.findForUpdate(bucketKey).orElse(null);
+        if (bucket == null) {
+            bucket = RateLimitBucket.builder()
+                    .bucketKey(bucketKey)
+                    .availableTokens(limit.capacity())
+                    .windowStart(now)
+                    .build();
+        } else if (now - bucket.getWindowStart() >= intervalMs) {
+            long periods = (now - bucket.getWindowStart()) / intervalMs;
+            long refilled = bucket.getAvailableTokens() + periods * limit.tokens();
+            bucket.setAvailableTokens(Math.min(limit.capacity(), refilled));
+            bucket.setWindowStart(bucket.getWindowStart() + periods * intervalMs);
+        }
+        bucket.setAvailableTokens(Math.min(limit.capacity(), bucket.getAvailableTokens() + returned));
+        
+        long granted = Math.min(requested, bucket.getAvailableTokens());
+        bucket.setAvailableTokens(bucket.getAvailableTokens() - granted);
+        bucketRepository.saveAndFlush(bucket);
+        
+        long millisToRefill = bucket.getWindowStart() + intervalMs - now;
+        return new Grant(granted, bucket.getAvailableTokens(), Math.max(0, millisToRefill));
+    }
+    
+    private record Grant(long granted, long remaining, long millisToRefill) {
+    }
+    
+    private static class Reservation {
+        private final long capacity;
+        private long tokens;
+        private long remainingInStore;
+        private long expiresAt;
+        private boolean retired;
+        
+        private Reservation(long capacity) {
+            this.capacity = capacity;
+        }
+    }
+}
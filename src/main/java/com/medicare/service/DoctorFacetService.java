@@ -0,0 +1,100 @@
+package com.medicare.service;
+
+import com.medicare.model.enums.Specialization;
+import com.medicare.repository.DoctorRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Facet counts for the doctor listing, derived from one cached aggregate of active
+ * doctors grouped by (specialization, availability, fee) instead of a COUNT query per
+ * facet value. The aggregate is evicted whenever a doctor is created or updated.
+ *
+ * Counts are disjunctive: specialization counts honour the fee and availability
+ * filters but not the selected specialization, fee band counts the reverse. Rating,
+ * experience and free-text filters are not part of the aggregate.
+ */
+@Service
+@RequiredArgsConstructor
+public class DoctorFacetService {
+    
+    public static final String CACHE_NAME = "doctorFacets";
+    private static final String AGGREGATE_KEY = "active";
+    
+    private final DoctorRepository doctorRepository;
+    private final CacheManager cacheManager;
+    
+    @Value("${doctor.facets.fee-bands:500,1000,2000}")
+    private List<BigDecimal> feeBandBounds;
+    
+    public Map<String, Map<String, Long>> getFacets(Specialization specialization, Boolean available,
+                                                    BigDecimal minFee, BigDecimal maxFee) {
+        Map<String, Long> bySpecialization = new LinkedHashMap<>();
+        for (Specialization value : Specialization.values()) {
+            bySpecialization.put(value.name(), 0L);
+        }
+        Map<String, Long> byFeeBand = new LinkedHashMap<>();
+        for (int band = 0; band <= feeBandBounds.size(); band++) {
+            byFeeBand.put(bandLabel(band), 0L);
+        }
+        
+        for (FacetCell cell : getAggregate()) {
+            if (available != null && cell.available() != available) {
+                continue;
+            }
+            if (inFeeRange(cell.fee(), minFee, maxFee)) {
+                bySpecialization.merge(cell.specialization().name(), cell.count(), Long::sum);
+            }
+            if (specialization == null || specialization == cell.specialization()) {
+                byFeeBand.merge(bandLabel(bandOf(cell.fee())), cell.count(), Long::sum);
+            }
+        }
+        
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        facets.put("specialization", bySpecialization);
+        facets.put("feeBand", byFeeBand);
+        return facets;
+    }
+    
+    private List<FacetCell> getAggregate() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME)).get(AGGREGATE_KEY, this::loadAggregate);
+    }
+    
+    private List<FacetCell> loadAggregate() {
+        List<FacetCell> cells = new ArrayList<>();
+        for (Object[] row : doctorRepository.countActiveBySpecializationAvailabilityAndFee()) {
+            cells.add(new FacetCell((Specialization) row[0], Boolean.TRUE.equals(row[1]),
+                    (BigDecimal) row[2], ((Number) row[3]).longValue()));
+        }
+        return List.copyOf(cells);
+    }
+    
+    private static boolean inFeeRange(BigDecimal fee, BigDecimal minFee, BigDecimal maxFee) {
+        return (minFee == null || fee.compareTo(minFee) >= 0)
+                && (maxFee == null || fee.compareTo(maxFee) <= 0);
+    }
+    
+    private int bandOf(BigDecimal fee) {
+        int band = 0;
+        while (band < feeBandBounds.size() && fee.compareTo(feeBandBounds.get(band)) >= 0) {
+            band++;
+        }
+        return band;
+    }
+    
+    private String bandLabel(int band) {
+        if (band == feeBandBounds.size()) {
+            return feeBandBounds.isEmpty() ? "0+" : feeBandBounds.get(band - 1).toPlainString() + "+";
+        }
+        String lower = band == 0 ? "0" : feeBandBounds.get(band - 1).toPlainString();
+        return lower + "-" + feeBandBounds.get(band).toPlainString();
+    }
+    
+    private record FacetCell(Specialization specialization, boolean available, BigDecimal fee, long count) {
+    }
+}
@@ -6,23 +6,56 @@ import com.medicare.exception.*;
 import com.medicare.model.*;
 import com.medicare.model.enums.Specialization;
 import com.medicare.repository.*;
+import com.medicare.search.DoctorLeaderboard;
+import com.medicare.search.DoctorSearchIndex;
+import com.medicare.search.DoctorSuggestIndex;
+import com.medicare.util.PageCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static com.medicare.repository.DoctorSpecifications.*;
+
 @Service
 @RequiredArgsConstructor
 public class DoctorService {
     private final DoctorRepository doctorRepository;
     private final UserRepository userRepository;
     private final DoctorScheduleRepository scheduleRepository;
+    private final DoctorSearchIndex searchIndex;
+    private final DoctorSuggestIndex suggestIndex;
+    private final DoctorLeaderboard leaderboard;
+    private final CacheManager cacheManager;
+    private final DoctorFacetService facetService;
+    private final AvailabilityService availabilityService;
+    
+    private static final int ID_CHUNK_SIZE = 1000;
+    private static final Sort LISTING_SORT = Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("id"));
+    private static final String LISTING_CURSOR = "dl";
+    private static final String SEARCH_CURSOR = "ds";
+    private static final int TOP_RATED_LIMIT = 10;
+    private static final double TOP_RATED_MIN_RATING = 4.0;
     
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = "doctors", key = "#result.id"),
+            @CacheEvict(value = DoctorFacetService.CACHE_NAME, allEntries = true)
+    })
     public DoctorDTO.Response createDoctor(DoctorDTO.CreateRequest request) {
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -41,6 +74,7 @@ public class DoctorService {
                 .build();
         
         doctor = doctorRepository.save(doctor);
+        indexAfterCommit(doctor);
         return mapToResponse(doctor);
     }
     
@@ -51,26 +85,78 @@ public class DoctorService {
         return mapToResponse(doctor);
     }
     
-    public PageResponse<DoctorDTO.Response> getAllDoctors(int page, int size, String specialization,
-                                                           BigDecimal minFee, BigDecimal maxFee, String search) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("rating").descending());
-        Page<Doctor> doctorPage;
+    /**
+     * Applies every filter that is set in a single query, then attaches facet counts
+     * from the cached aggregate. Free text ranks through the search index when it is
+     * ready and falls back to LIKE otherwise.
+     *
+     * As before the filters were combined, text search and specialization listings show
+     * only available doctors unless {@code available} is given. The index holds only active,
+     * available doctors, so a search for unavailable ones always takes the LIKE path.
+     *
+     * Database listings seek past (rating, id) of the cursor instead of using OFFSET;
+     * without a cursor, page 0 starts at the top and any other page falls back to
+     * offset paging. The exact total costs a COUNT and is opt-in.
+     */
+    public PageResponse<DoctorDTO.Response> getAllDoctors(int page, int size, String cursor, boolean includeTotal,
+                                                          DoctorDTO.SearchFilter filter) {
+        Specialization spec = filter.getSpecialization() != null
+                ? Specialization.valueOf(filter.getSpecialization().toUpperCase())
+                : null;
+        String search = filter.getSearch();
+        boolean hasSearch = search != null && !search.isBlank();
+        Boolean available = filter.getAvailable() != null ? filter.getAvailable()
+                : spec != null || hasSearch ? Boolean.TRUE : null;
+        Specification<Doctor> criteria = Specification.where(isActive())
+                .and(hasSpecialization(spec))
+                .and(isAvailable(available))
+                .and(feeBetween(filter.getMinFee(), filter.getMaxFee()))
+                .and(ratingAtLeast(filter.getMinRating()))
+                .and(experienceAtLeast(filter.getMinExperience()));
+        // Availability is left out: every indexed doctor is already active and available
+        boolean filtered = spec != null
+                || filter.getMinFee() != null || filter.getMaxFee() != null
+                || filter.getMinRating() != null || filter.getMinExperience() != null;
         
-        if (search != null && !search.isEmpty()) {
-            doctorPage = doctorRepository.searchAvailableDoctors(search, pageable);
-        } else if (specialization != null) {
-            Specialization spec = Specialization.valueOf(specialization.toUpperCase());
-            doctorPage = doctorRepository.findBySpecializationAndIsAvailable(spec, true, pageable);
-        } else if (minFee != null && maxFee != null) {
-            doctorPage = doctorRepository.findByConsultationFeeBetween(minFee, maxFee, pageable);
+        PageResponse<DoctorDTO.Response> response;
+        if (hasSearch && searchIndex.isReady() && Boolean.TRUE.equals(available)) {
+            int offset = cursor != null
+                    ? PageCursor.parse(PageCursor.decode(cursor, SEARCH_CURSOR, 1)[0], Integer::valueOf)
+                    : page * size;
+            response = filtered
+                    ? searchFromIndex(search, criteria, offset, size)
+                    : searchFromIndex(search, offset, size);
+        } else if (cursor == null && page > 0) {
+            Pageable pageable = PageRequest.of(page, size, LISTING_SORT);
+            response = mapToPageResponse(doctorRepository.findAll(criteria.and(matchesText(search)), pageable));
         } else {
-            doctorPage = doctorRepository.findByIsActive(true, pageable);
+            Specification<Doctor> matching = criteria.and(matchesText(search));
+            Specification<Doctor> seek = matching;
+            if (cursor != null) {
+                String[] values = PageCursor.decode(cursor, LISTING_CURSOR, 2);
+                seek = seek.and(rankedAfter(PageCursor.parse(values[0], Double::valueOf),
+                        PageCursor.parse(values[1], Long::valueOf)));
+            }
+            List<Doctor> rows = doctorRepository.findBy(seek, query -> query
+                    .project("user")
+                    .sortBy(LISTING_SORT)
+                    .limit(size + 1)
+                    .all());
+            response = PageResponse.ofCursor(rows, size, cursor == null, this::mapToResponses,
+                    doctor -> PageCursor.encode(LISTING_CURSOR, doctor.getRating(), doctor.getId()),
+                    includeTotal ? doctorRepository.count(matching) : null);
         }
         
-        return mapToPageResponse(doctorPage);
+        response.setFacets(facetService.getFacets(spec, available,
+                filter.getMinFee(), filter.getMaxFee()));
+        return response;
     }
     
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = "doctors", key = "#id"),
+            @CacheEvict(value = DoctorFacetService.CACHE_NAME, allEntries = true)
+    })
     public DoctorDTO.Response updateDoctor(Long id, DoctorDTO.UpdateRequest request) {
         Doctor doctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found"));
@@ -95,10 +181,12 @@ public class DoctorService {
         }
         
         doctor = doctorRepository.save(doctor);
+        indexAfterCommit(doctor);
         return mapToResponse(doctor);
     }
     
     @Transactional
+    @CacheEvict(value = "doctors", key = "#doctorId")
     public DoctorDTO.ScheduleResponse addSchedule(Long doctorId, DoctorDTO.ScheduleRequest request) {
         Doctor doctor = doctorRepository.findById(doctorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found"));
@@ -120,14 +208,146 @@ public class DoctorService {
                 .build();
         
         schedule = scheduleRepository.save(schedule);
+        afterCommit(() -> availabilityService.evictDoctor(doctorId));
         return mapToScheduleResponse(schedule);
     }
     
-    public List<DoctorDTO.Response> getTopRatedDoctors() {
-        Pageable limit = PageRequest.of(0, 10);
-        return doctorRepository.findTopRatedDoctors(4.0, limit).stream()
-                .map(this::mapToResponse)
+    public List<DoctorDTO.DayAvailability> getAvailability(Long doctorId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        return availabilityService.getAvailability(doctorId, start, to != null ? to : start.plusDays(6));
+    }
+    
+    /**
+     * Earliest free slots across every active, available doctor of a specialization
+     * matching the fee and rating filters. One query selects the doctors; the slots
+     * come from the availability cache.
+     */
+    public List<DoctorDTO.NextSlot> getNextAvailableSlots(String specialization, BigDecimal maxFee,
+                                                          Double minRating, LocalDateTime from, int limit) {
+        Specification<Doctor> criteria = Specification.where(isActive())
+                .and(hasSpecialization(Specialization.valueOf(specialization.toUpperCase())))
+                .and(isAvailable(true))
+                .and(feeBetween(null, maxFee))
+                .and(ratingAtLeast(minRating));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime notBefore = from != null && from.isAfter(now) ? from : now;
+        return availabilityService.findEarliestSlots(doctorRepository.findAll(criteria), notBefore,
+                Math.min(limit, 50));
+    }
+    
+    public List<DoctorDTO.Suggestion> getSuggestions(String query, int limit) {
+        return suggestIndex.suggest(query, Math.min(limit, 20));
+    }
+    
+    /**
+     * Reads the ranking from the in-memory leaderboard and the profiles from the
+     * "doctors" cache; only cache misses reach the database.
+     */
+    public List<DoctorDTO.Response> getTopRatedDoctors(String specialization) {
+        List<DoctorLeaderboard.Standing> standings = specialization != null
+                ? leaderboard.top(Specialization.valueOf(specialization.toUpperCase()), TOP_RATED_LIMIT)
+                : leaderboard.top(TOP_RATED_LIMIT);
+        List<Long> ids = standings.stream()
+                .filter(standing -> standing.rating() >= TOP_RATED_MIN_RATING)
+                .map(DoctorLeaderboard.Standing::doctorId)
+                .collect(Collectors.toList());
+        return getDoctorsByIds(ids);
+    }
+    
+    /**
+     * Ranks matches in the in-memory index, then hydrates only the requested page,
+     * reading the "doctors" cache first and batch-loading whatever is missing.
+     */
+    private PageResponse<DoctorDTO.Response> searchFromIndex(String search, int offset, int size) {
+        List<Long> ranked = searchIndex.search(search);
+        return rankedPage(ranked, offset, size, this::getDoctorsByIds);
+    }
+    
+    /**
+     * Ranked search narrowed by structured filters: the ranked ids are checked against
+     * the filters in chunks, keeping rank order, and only the requested page is mapped.
+     */
+    private PageResponse<DoctorDTO.Response> searchFromIndex(String search, Specification<Doctor> criteria,
+                                                             int offset, int size) {
+        List<Long> ranked = searchIndex.search(search);
+        Map<Long, Doctor> matching = new HashMap<>();
+        for (int from = 0; from < ranked.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = ranked.subList(from, Math.min(from + ID_CHUNK_SIZE, ranked.size()));
+            for (Doctor doctor : doctorRepository.findAll(criteria.and(idIn(chunk)))) {
+                matching.put(doctor.getId(), doctor);
+            }
+        }
+        List<Doctor> ordered = ranked.stream()
+                .map(matching::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return rankedPage(ordered, offset, size, this::mapToResponses);
+    }
+    
+    /**
+     * Search results are already fully ranked in memory, so their cursor is simply the
+     * position of the next result and the total comes for free.
+     */
+    private <E> PageResponse<DoctorDTO.Response> rankedPage(List<E> ranked, int offset, int size,
+                                                            Function<List<E>, List<DoctorDTO.Response>> mapper) {
+        int from = Math.min(Math.max(offset, 0), ranked.size());
+        int to = Math.min(from + size, ranked.size());
+        int totalPages = size > 0 ? (int) Math.ceil((double) ranked.size() / size) : 0;
+        
+        return PageResponse.<DoctorDTO.Response>builder()
+                .content(mapper.apply(ranked.subList(from, to)))
+                .pageNumber(size > 0 ? from / size : 0)
+                .pageSize(size)
+                .totalElements((long) ranked.size())
+                .totalPages(totalPages)
+                .last(to >= ranked.size())
+                .first(from == 0)
+                .nextCursor(to < ranked.size() ? PageCursor.encode(SEARCH_CURSOR, to) : null)
+                .build();
+    }
+    
+    private List<DoctorDTO.Response> getDoctorsByIds(List<Long> ids) {
+        Cache cache = cacheManager.getCache("doctors");
+        Map<Long, DoctorDTO.Response> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            DoctorDTO.Response cached = cache.get(id, DoctorDTO.Response.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (DoctorDTO.Response response : mapToResponses(doctorRepository.findWithUserByIdIn(missing))) {
+                cache.put(response.getId(), response);
+                found.put(response.getId(), response);
+            }
+        }
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
+    private void indexAfterCommit(Doctor doctor) {
+        afterCommit(() -> {
+            searchIndex.index(doctor);
+            leaderboard.update(doctor);
+        });
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
     
     private DoctorDTO.Response mapToResponse(Doctor doctor) {
@@ -135,7 +355,31 @@ public class DoctorService {
                 .findByDoctorId(doctor.getId()).stream()
                 .map(this::mapToScheduleResponse)
                 .collect(Collectors.toList());
+        return mapToResponse(doctor, schedules);
+    }
+    
+    /**
+     * Maps a page of doctors with one IN query for all their schedules. Callers load
+     * the doctors with their user fetched, so a page costs a constant number of queries.
+     */
+    private List<DoctorDTO.Response> mapToResponses(List<Doctor> doctors) {
+        if (doctors.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> doctorIds = doctors.stream().map(Doctor::getId).collect(Collectors.toList());
+        Map<Long, List<DoctorDTO.ScheduleResponse>> schedulesByDoctor = scheduleRepository
+                .findByDoctorIdIn(doctorIds).stream()
+                .collect(Collectors.groupingBy(
+                        schedule -> schedule.getDoctor().getId(),
+                        Collectors.mapping(this::mapToScheduleResponse, Collectors.toList())));
         
+        return doctors.stream()
+                .map(doctor -> mapToResponse(doctor,
+                        schedulesByDoctor.getOrDefault(doctor.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+    
+    private DoctorDTO.Response mapToResponse(Doctor doctor, List<DoctorDTO.ScheduleResponse> schedules) {
         return DoctorDTO.Response.builder()
                 .id(doctor.getId())
                 .userId(doctor.getUser().getId())
@@ -168,7 +412,7 @@ public class DoctorService {
     
     private PageResponse<DoctorDTO.Response> mapToPageResponse(Page<Doctor> page) {
         return PageResponse.<DoctorDTO.Response>builder()
-                .content(page.getContent().stream().map(this::mapToResponse).collect(Collectors.toList()))
+                .content(mapToResponses(page.getContent()))
                 .pageNumber(page.getNumber())
                 .pageSize(page.getSize())
                 .totalElements(page.getTotalElements())
@@ -71,4 +71,35 @@ public class EmailService {
         );
         sendEmail(email, subject, body);
     }
+    
+    @Async
+    public void sendWaitlistBooking(String email, String patientName, String doctorName, String dateTime) {
+        String subject = "A Slot Opened Up - MediCare";
+        String body = String.format(
+                "Dear %s,\n\n" +
+                "A slot you were waiting for became available and has been booked for you.\n\n" +
+                "Doctor: Dr. %s\n" +
+                "Date & Time: %s\n\n" +
+                "If you can no longer make it, please cancel so the slot can go to the next patient.\n\n" +
+                "Best regards,\nMediCare Team",
+                patientName, doctorName, dateTime
+        );
+        sendEmail(email, subject, body);
+    }
+    
+    @Async
+    public void sendAppointmentReminder(String email, String patientName, String doctorName,
+                                        String dateTime, String leadTime) {
+        String subject = "Appointment Reminder - MediCare";
+        String body = String.format(
+                "Dear %s,\n\n" +
+                "This is a reminder that your appointment is in %s.\n\n" +
+                "Doctor: Dr. %s\n" +
+                "Date & Time: %s\n\n" +
+                "If you can no longer make it, please cancel so the slot can go to another patient.\n\n" +
+                "Best regards,\nMediCare Team",
+                patientName, leadTime, doctorName, dateTime
+        );
+        sendEmail(email, subject, body);
+    }
 }
@@ -5,11 +5,18 @@ import com.medicare.dto.PageResponse;
 import com.medicare.exception.ResourceNotFoundException;
 import com.medicare.model.*;
 import com.medicare.repository.*;
+import com.medicare.util.PageCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,7 +27,10 @@ public class MedicalRecordService {
     private final AppointmentRepository appointmentRepository;
     private final FileStorageService fileStorageService;
     
+    private static final String CURSOR_KIND = "mr";
+    
     @Transactional
+    @CachePut(value = "medicalRecords", key = "#result.id")
     public MedicalRecordDTO.Response createMedicalRecord(MedicalRecordDTO.CreateRequest request) {
         User patient = userRepository.findById(request.getPatientId())
                 .orElseThrow(() -> new ResourceNotFoundException("Patient not found"));
@@ -49,28 +59,58 @@ public class MedicalRecordService {
         return mapToResponse(record);
     }
     
+    @Cacheable(value = "medicalRecords", key = "#id")
+    @Transactional(readOnly = true)
     public MedicalRecordDTO.Response getMedicalRecordById(Long id) {
         MedicalRecord record = medicalRecordRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Medical record not found"));
         return mapToResponse(record);
     }
     
-    public PageResponse<MedicalRecordDTO.Response> getPatientMedicalRecords(Long patientId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<MedicalRecord> recordPage = medicalRecordRepository.findByPatientId(patientId, pageable);
+    /**
+     * Newest first. With a cursor the page seeks past (createdAt, id) of the previous
+     * page's last record; without one, page 0 starts at the top and any other page
+     * falls back to offset paging. The exact total costs a COUNT and is opt-in.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<MedicalRecordDTO.Response> getPatientMedicalRecords(Long patientId, int page, int size,
+                                                                            String cursor, boolean includeTotal) {
+        if (cursor == null && page > 0) {
+            Pageable pageable = PageRequest.of(page, size,
+                    Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+            Page<MedicalRecord> recordPage = medicalRecordRepository.findByPatientId(patientId, pageable);
+            
+            return PageResponse.<MedicalRecordDTO.Response>builder()
+                    .content(recordPage.getContent().stream().map(this::mapToResponse).collect(Collectors.toList()))
+                    .pageNumber(recordPage.getNumber())
+                    .pageSize(recordPage.getSize())
+                    .totalElements(recordPage.getTotalElements())
+                    .totalPages(recordPage.getTotalPages())
+                    .last(recordPage.isLast())
+                    .first(recordPage.isFirst())
+                    .build();
+        }
         
-        return PageResponse.<MedicalRecordDTO.Response>builder()
-                .content(recordPage.getContent().stream().map(this::mapToResponse).collect(Collectors.toList()))
-                .pageNumber(recordPage.getNumber())
-                .pageSize(recordPage.getSize())
-                .totalElements(recordPage.getTotalElements())
-                .totalPages(recordPage.getTotalPages())
-                .last(recordPage.isLast())
-                .first(recordPage.isFirst())
-                .build();
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<MedicalRecord> rows;
+        if (cursor == null) {
+            rows = medicalRecordRepository.findLatestByPatient(patientId, limit);
+        } else {
+            String[] values = PageCursor.decode(cursor, CURSOR_KIND, 2);
+            rows = medicalRecordRepository.findByPatientBefore(patientId,
+                    PageCursor.parse(values[0], LocalDateTime::parse),
+                    PageCursor.parse(values[1], Long::valueOf),
+                    limit);
+        }
+        
+        return PageResponse.ofCursor(rows, size, cursor == null,
+                records -> records.stream().map(this::mapToResponse).collect(Collectors.toList()),
+                record -> PageCursor.encode(CURSOR_KIND, record.getCreatedAt(), record.getId()),
+                includeTotal ? medicalRecordRepository.countByPatientId(patientId) : null);
     }
     
     @Transactional
+    @CacheEvict(value = "medicalRecords", key = "#recordId")
     public String uploadFile(Long recordId, MultipartFile file) {
         MedicalRecord record = medicalRecordRepository.findById(recordId)
                 .orElseThrow(() -> new ResourceNotFoundException("Medical record not found"));
@@ -83,6 +123,7 @@ public class MedicalRecordService {
     }
     
     @Transactional
+    @CacheEvict(value = "medicalRecords", key = "#id")
     public MedicalRecordDTO.Response updateMedicalRecord(Long id, MedicalRecordDTO.UpdateRequest request) {
         MedicalRecord record = medicalRecordRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Medical record not found"));
@@ -112,7 +153,7 @@ public class MedicalRecordService {
                 .treatment(record.getTreatment())
                 .medications(record.getMedications())
                 .testReports(record.getTestReports())
-                .attachments(record.getAttachments())
+                .attachments(new ArrayList<>(record.getAttachments()))
                 .doctorNotes(record.getDoctorNotes())
                 .bloodPressure(record.getBloodPressure())
                 .temperature(record.getTemperature())
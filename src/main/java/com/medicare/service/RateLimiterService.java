@@ -1,28 +1,97 @@
 package com.medicare.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.medicare.exception.BadRequestException;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.Refill;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Token buckets per (tier, client key). Buckets live in a bounded cache and are
+ * dropped once idle for longer than their refill period, at which point a fresh
+ * full bucket is equivalent anyway.
+ *
+ * Limits for a tier come from rate.limit.{tier}.capacity / .tokens / .duration and
+ * fall back to the global rate.limit.* values. With rate.limit.backend=jdbc the
+ * buckets are shared across nodes through {@link DistributedRateLimiter}.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class RateLimiterService {
     
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    public static final String DEFAULT_TIER = "default";
+    public static final String AUTH_TIER = "auth";
+    public static final String ANONYMOUS_TIER = "anonymous";
+    
+    private static final List<String> KNOWN_TIERS = List.of(DEFAULT_TIER, AUTH_TIER, ANONYMOUS_TIER,
+            "patient", "doctor", "admin");
+    
+    private final Environment environment;
+    private final Optional<DistributedRateLimiter> distributedRateLimiter;
+    
+    @Value("${rate.limit.capacity:100}")
+    private long defaultCapacity;
+    
+    @Value("${rate.limit.tokens:100}")
+    private long defaultTokens;
+    
+    @Value("${rate.limit.duration:3600}")
+    private long defaultDurationSeconds;
+    
+    @Value("${rate.limit.max-buckets:100000}")
+    private long maxBuckets;
+    
+    private final Map<String, TierLimit> tiers = new ConcurrentHashMap<>();
+    private Cache<String, Bucket> cache;
+    
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofSeconds(maxRefillSeconds()))
+                .build();
+    }
     
     public Bucket resolveBucket(String key) {
-        return cache.computeIfAbsent(key, k -> createNewBucket());
+        return resolveBucket(DEFAULT_TIER, key);
+    }
+    
+    public Bucket resolveBucket(String tier, String key) {
+        return cache.get(tier + ":" + key, k -> createNewBucket(tierLimit(tier)));
+    }
+    
+    public RateLimitResult tryConsume(String tier, String key) {
+        if (distributedRateLimiter.isPresent()) {
+            return distributedRateLimiter.get().tryConsume(tier + ":" + key, tierLimit(tier));
+        }
+        ConsumptionProbe probe = resolveBucket(tier, key).tryConsumeAndReturnRemaining(1);
+        return probe.isConsumed()
+                ? RateLimitResult.consumed(probe.getRemainingTokens())
+                : RateLimitResult.rejected(probe.getNanosToWaitForRefill());
+    }
+    
+    public long getCapacity(String tier) {
+        return tierLimit(tier).capacity();
     }
     
-    private Bucket createNewBucket() {
-        Bandwidth limit = Bandwidth.classic(100, Refill.intervally(100, Duration.ofHours(1)));
+    private Bucket createNewBucket(TierLimit tierLimit) {
+        Bandwidth limit = Bandwidth.classic(tierLimit.capacity(),
+                Refill.intervally(tierLimit.tokens(), tierLimit.duration()));
         return Bucket.builder()
                 .addLimit(limit)
                 .build();
@@ -35,4 +104,37 @@ public class RateLimiterService {
             throw new BadRequestException("Too many requests. Please try again later.");
         }
     }
+    
+    private TierLimit tierLimit(String tier) {
+        return tiers.computeIfAbsent(tier, t -> {
+            Long tierCapacity = environment.getProperty("rate.limit." + t + ".capacity", Long.class);
+            long capacity = tierCapacity != null ? tierCapacity : defaultCapacity;
+            long tokens = environment.getProperty("rate.limit." + t + ".tokens", Long.class,
+                    tierCapacity != null ? tierCapacity : defaultTokens);
+            long duration = environment.getProperty("rate.limit." + t + ".duration", Long.class, defaultDurationSeconds);
+            return new TierLimit(capacity, tokens, Duration.ofSeconds(duration));
+        });
+    }
+    
+    private long maxRefillSeconds() {
+        long max = defaultDurationSeconds;
+        for (String tier : KNOWN_TIERS) {
+            max = Math.max(max, tierLimit(tier).duration().getSeconds());
+        }
+        return max;
+    }
+    
+    record TierLimit(long capacity, long tokens, Duration duration) {
+    }
+    
+    public record RateLimitResult(boolean allowed, long remainingTokens, long nanosToWaitForRefill) {
+        
+        static RateLimitResult consumed(long remainingTokens) {
+            return new RateLimitResult(true, remainingTokens, 0);
+        }
+        
+        static RateLimitResult rejected(long nanosToWaitForRefill) {
+            return new RateLimitResult(false, 0, nanosToWaitForRefill);
+        }
+    }
 }
@@ -0,0 +1,341 @@
+package com.medicare.service;
+
+import com.medicare.cache.CacheInvalidationMessage;
+import com.medicare.cache.CacheInvalidationTransport;
+import com.medicare.model.Appointment;
+import com.medicare.model.enums.AppointmentStatus;
+import com.medicare.repository.AppointmentRepository;
+import com.medicare.repository.SchedulerLeaseRepository;
+import com.medicare.util.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reminder emails a fixed time before each appointment (24h and 1h by default).
+ * Pending reminders sit in a hierarchical timing wheel that only ever holds the next
+ * few hours: each tick loads the reminders falling into the newly uncovered stretch
+ * of time with one narrow range query per offset, so no scan ever touches the whole
+ * future of the appointments table. Bookings, reschedules and cancellations update
+ * the wheel directly, and other nodes through the invalidation transport.
+ *
+ * Every node keeps the same wheel, but reminders are only sent by the node holding
+ * the database lease for their time range; the others drop them. A reminder is
+ * checked against the appointment's current status and time before it is sent.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReminderService {
+    
+    static final String CACHE_NAME = "reminders";
+    private static final String LEASE_PREFIX = "reminders:";
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 3;
+    private static final Set<AppointmentStatus> UPCOMING =
+            EnumSet.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED);
+    
+    private final AppointmentRepository appointmentRepository;
+    private final SchedulerLeaseRepository leaseRepository;
+    private final EmailService emailService;
+    private final CacheInvalidationTransport invalidationTransport;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${reminders.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${reminders.offsets-minutes:1440,60}")
+    private List<Integer> offsetsMinutes;
+    
+    @Value("${reminders.tick-seconds:30}")
+    private long tickSeconds;
+    
+    @Value("${reminders.lookahead-minutes:180}")
+    private long lookaheadMinutes;
+    
+    @Value("${reminders.lease-range-minutes:15}")
+    private long leaseRangeMinutes;
+    
+    @Value("${reminders.lease-ttl-seconds:90}")
+    private long leaseTtlSeconds;
+    
+    private TimingWheel<ReminderKey, Reminder> wheel;
+    private LocalDateTime loadedUntil;
+    private final List<Reminder> overdue = new ArrayList<>();
+    private long lastLeaseCleanup;
+    
+    private Counter sent;
+    private Counter stale;
+    private Counter notOwned;
+    
+    @PostConstruct
+    void init() {
+        wheel = newWheel();
+        if (Duration.ofMinutes(lookaheadMinutes).plusSeconds(tickSeconds).toMillis() >= wheel.horizonMillis()) {
+            throw new IllegalStateException("reminders.lookahead-minutes exceeds the timing wheel's horizon");
+        }
+        sent = outcome("sent");
+        stale = outcome("stale");
+        notOwned = outcome("not_owner");
+        Gauge.builder("reminders.pending", this, ReminderService::pending)
+                .description("Reminders held in the timing wheel")
+                .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        invalidationTransport.subscribe(this::onInvalidation);
+        synchronized (this) {
+            // Reminders that fell due while no node was running are not sent late
+            loadedUntil = LocalDateTime.now();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${reminders.tick-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Reminder> due;
+        synchronized (this) {
+            if (loadedUntil == null) {
+                return;
+            }
+            loadUntil(now.plusMinutes(lookaheadMinutes));
+            due = new ArrayList<>(overdue);
+            overdue.clear();
+            due.addAll(wheel.advance(toMillis(now)));
+        }
+        if (!due.isEmpty()) {
+            dispatch(due);
+        }
+        cleanUpLeases();
+    }
+    
+    /**
+     * A booking or reschedule committed; replaces any reminders for the appointment.
+     */
+    public void appointmentScheduled(Long appointmentId, LocalDateTime appointmentDateTime) {
+        boolean inWindow;
+        synchronized (this) {
+            if (loadedUntil == null) {
+                return;
+            }
+            unschedule(appointmentId);
+            inWindow = schedule(appointmentId, appointmentDateTime, LocalDateTime.now());
+        }
+        // Beyond the loaded window every node picks the reminders up from the database
+        if (inWindow) {
+            publish(appointmentId);
+        }
+    }
+    
+    public void appointmentClosed(Long appointmentId) {
+        synchronized (this) {
+            unschedule(appointmentId);
+        }
+        publish(appointmentId);
+    }
+    
+    /**
+     * Adds reminders for the appointment whose time lies in the loaded window and is
+     * still ahead; returns whether any offset fell into the window. Caller holds the lock.
+     */
+    private boolean schedule(Long appointmentId, LocalDateTime appointmentDateTime, LocalDateTime now) {
+        boolean inWindow = false;
+        for (int offset : offsetsMinutes) {
+            LocalDateTime fireAt = appointmentDateTime.minusMinutes(offset);
+            if (fireAt.isAfter(loadedUntil)) {
+                continue;
+            }
+            inWindow = true;
+            if (fireAt.isAfter(now)) {
+                add(new Reminder(appointmentId, appointmentDateTime, offset, fireAt));
+            }
+        }
+        return inWindow;
+    }
+    
+    private void add(Reminder reminder) {
+        if (!wheel.schedule(new ReminderKey(reminder.appointmentId(), reminder.offsetMinutes()),
+                toMillis(reminder.fireAt()), reminder)) {
+            // Due within the wheel's current tick
+            overdue.add(reminder);
+        }
+    }
+    
+    private void unschedule(Long appointmentId) {
+        for (int offset : offsetsMinutes) {
+            wheel.cancel(new ReminderKey(appointmentId, offset));
+        }
+        overdue.removeIf(reminder -> reminder.appointmentId().equals(appointmentId));
+    }
+    
+    /**
+     * Extends the loaded window to the target, one range query per offset. Holding the
+     * lock across the queries means a booking committing meanwhile is either seen by
+     * the query or scheduled by {@link #appointmentScheduled} against the new window.
+     */
+    private void loadUntil(LocalDateTime target) {
+        if (!target.isAfter(loadedUntil)) {
+            return;
+        }
+        int loaded = 0;
+        for (int offset : offsetsMinutes) {
+            List<Object[]> rows = appointmentRepository.findTimesInRange(UPCOMING,
+                    loadedUntil.plusMinutes(offset), target.plusMinutes(offset));
+            for (Object[] row : rows) {
+                LocalDateTime appointmentDateTime = (LocalDateTime) row[1];
+                add(new Reminder((Long) row[0], appointmentDateTime, offset, appointmentDateTime.minusMinutes(offset)));
+            }
+            loaded += rows.size();
+        }
+        loadedUntil = target;
+        if (loaded > 0) {
+            log.debug("Loaded {} reminders up to {}", loaded, target);
+        }
+    }
+    
+    private void dispatch(List<Reminder> due) {
+        long rangeMillis = Duration.ofMinutes(leaseRangeMinutes).toMillis();
+        Map<Long, List<Reminder>> byRange = due.stream()
+                .collect(Collectors.groupingBy(reminder -> Math.floorDiv(toMillis(reminder.fireAt()), rangeMillis)));
+    
+        List<Reminder> owned = new ArrayList<>();
+        byRange.forEach((range, reminders) -> {
+            if (holdsLease(LEASE_PREFIX + range * rangeMillis)) {
+                owned.addAll(reminders);
+            } else {
+                notOwned.increment(reminders.size());
+            }
+        });
+        if (owned.isEmpty()) {
+            return;
+        }
+    
+        Map<Long, Appointment> appointments = appointmentRepository.findWithPartiesByIdIn(owned.stream()
+                        .map(Reminder::appointmentId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+        for (Reminder reminder : owned) {
+            Appointment appointment = appointments.get(reminder.appointmentId());
+            if (appointment == null || !UPCOMING.contains(appointment.getStatus())
+                    || !appointment.getAppointmentDateTime().equals(reminder.appointmentDateTime())) {
+                // Changed on a node whose update never reached this one
+                stale.increment();
+                continue;
+            }
+            emailService.sendAppointmentReminder(appointment.getPatient().getEmail(),
+                    appointment.getPatient().getFullName(), appointment.getDoctor().getUser().getFullName(),
+                    appointment.getAppointmentDateTime().toString(), leadTime(reminder.offsetMinutes()));
+            sent.increment();
+        }
+    }
+    
+    /**
+     * Claims or renews the lease on a time range. The first node to claim a range owns
+     * it for as long as it keeps renewing; a node that dies loses it after the TTL.
+     */
+    private boolean holdsLease(String name) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + TimeUnit.SECONDS.toMillis(leaseTtlSeconds);
+        String owner = invalidationTransport.getNodeId();
+        if (leaseRepository.claim(name, owner, now, expiresAt) == 1) {
+            return true;
+        }
+        try {
+            return leaseRepository.create(name, owner, expiresAt) == 1;
+        } catch (DataIntegrityViolationException e) {
+            // Another node holds or just created it
+            return false;
+        }
+    }
+    
+    private void cleanUpLeases() {
+        long now = System.currentTimeMillis();
+        if (now - lastLeaseCleanup < TimeUnit.HOURS.toMillis(1)) {
+            return;
+        }
+        lastLeaseCleanup = now;
+        leaseRepository.deleteExpired(LEASE_PREFIX, now - TimeUnit.DAYS.toMillis(1));
+    }
+    
+    private void onInvalidation(CacheInvalidationMessage message) {
+        if (CacheInvalidationMessage.ALL_CACHES.equals(message.cacheName())) {
+            synchronized (this) {
+                wheel = newWheel();
+                overdue.clear();
+                // Reload the whole window on the next tick
+                loadedUntil = LocalDateTime.now();
+            }
+        } else if (CACHE_NAME.equals(message.cacheName()) && message.key() instanceof Long appointmentId) {
+            // Another node booked, moved or closed this appointment; pick up its current state
+            Optional<LocalDateTime> time = appointmentRepository.findTimeByIdAndStatusIn(appointmentId, UPCOMING);
+            synchronized (this) {
+                if (loadedUntil == null) {
+                    return;
+                }
+                unschedule(appointmentId);
+                time.ifPresent(appointmentDateTime -> schedule(appointmentId, appointmentDateTime, LocalDateTime.now()));
+            }
+        }
+    }
+    
+    private TimingWheel<ReminderKey, Reminder> newWheel() {
+        return new TimingWheel<>(TimeUnit.SECONDS.toMillis(tickSeconds), WHEEL_SIZE, WHEEL_LEVELS,
+                System.currentTimeMillis());
+    }
+    
+    private synchronized int pending() {
+        return wheel.size() + overdue.size();
+    }
+    
+    private void publish(Long appointmentId) {
+        invalidationTransport.publish(new CacheInvalidationMessage(
+                invalidationTransport.getNodeId(), CACHE_NAME, appointmentId));
+    }
+    
+    private Counter outcome(String outcome) {
+        return Counter.builder("reminders")
+                .description("Due reminders by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+    
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private static String leadTime(int offsetMinutes) {
+        if (offsetMinutes % 60 != 0) {
+            return offsetMinutes + " minutes";
+        }
+        int hours = offsetMinutes / 60;
+        return hours == 1 ? "1 hour" : hours + " hours";
+    }
+    
+    private record ReminderKey(Long appointmentId, int offsetMinutes) {
+    }
+    
+    private record Reminder(Long appointmentId, LocalDateTime appointmentDateTime, int offsetMinutes,
+                            LocalDateTime fireAt) {
+    }
+}
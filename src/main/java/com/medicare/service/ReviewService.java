@@ -0,0 +1,121 @@
+package com.medicare.service;
+
+import com.medicare.dto.PageResponse;
+import com.medicare.dto.ReviewDTO;
+import com.medicare.exception.BadRequestException;
+import com.medicare.exception.ResourceNotFoundException;
+import com.medicare.model.Doctor;
+import com.medicare.model.Review;
+import com.medicare.model.User;
+import com.medicare.repository.DoctorRepository;
+import com.medicare.repository.ReviewRepository;
+import com.medicare.repository.UserRepository;
+import com.medicare.search.DoctorLeaderboard;
+import com.medicare.search.DoctorSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.*;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ReviewService {
+    private final ReviewRepository reviewRepository;
+    private final DoctorRepository doctorRepository;
+    private final UserRepository userRepository;
+    private final DoctorSearchIndex searchIndex;
+    private final DoctorLeaderboard leaderboard;
+    
+    /**
+     * One review per patient and doctor: checked up front and enforced by a unique
+     * constraint for concurrent submissions. The doctor's rating is updated
+     * incrementally in the same transaction; the cached profile is evicted and the
+     * in-memory rankings are patched once it commits.
+     */
+    @Transactional
+    @CacheEvict(value = "doctors", key = "#request.doctorId")
+    public ReviewDTO.Response submitReview(ReviewDTO.CreateRequest request, String email) {
+        User patient = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Doctor doctor = doctorRepository.findById(request.getDoctorId())
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found"));
+        
+        if (reviewRepository.existsByDoctorIdAndPatientId(doctor.getId(), patient.getId())) {
+            throw new BadRequestException("You have already reviewed this doctor");
+        }
+        
+        Review review = Review.builder()
+                .doctor(doctor)
+                .patient(patient)
+                .rating(request.getRating())
+                .comment(request.getComment())
+                .build();
+        try {
+            // Flush now so a concurrent duplicate fails before the rating is touched
+            review = reviewRepository.saveAndFlush(review);
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException("You have already reviewed this doctor");
+        }
+        
+        doctorRepository.addRating(doctor.getId(), request.getRating());
+        Object[] updated = doctorRepository.findRatingById(doctor.getId()).get(0);
+        double rating = ((Number) updated[0]).doubleValue();
+        int totalRatings = ((Number) updated[1]).intValue();
+        
+        updateRankingsAfterCommit(doctor.getId(), rating);
+        return mapToResponse(review, rating, totalRatings);
+    }
+    
+    @Transactional(readOnly = true)
+    public PageResponse<ReviewDTO.Response> getDoctorReviews(Long doctorId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+        Page<Review> reviewPage = reviewRepository.findByDoctorId(doctorId, pageable);
+        
+        return PageResponse.<ReviewDTO.Response>builder()
+                .content(reviewPage.getContent().stream()
+                        .map(review -> mapToResponse(review, null, null))
+                        .collect(Collectors.toList()))
+                .pageNumber(reviewPage.getNumber())
+                .pageSize(reviewPage.getSize())
+                .totalElements(reviewPage.getTotalElements())
+                .totalPages(reviewPage.getTotalPages())
+                .last(reviewPage.isLast())
+                .first(reviewPage.isFirst())
+                .build();
+    }
+    
+    private void updateRankingsAfterCommit(Long doctorId, double rating) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            searchIndex.updateRating(doctorId, rating);
+            leaderboard.updateRating(doctorId, rating);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                searchIndex.updateRating(doctorId, rating);
+                leaderboard.updateRating(doctorId, rating);
+            }
+        });
+    }
+    
+    private ReviewDTO.Response mapToResponse(Review review, Double doctorRating, Integer doctorTotalRatings) {
+        return ReviewDTO.Response.builder()
+                .id(review.getId())
+                .doctorId(review.getDoctor().getId())
+                .patientId(review.getPatient().getId())
+                .patientName(review.getPatient().getFullName())
+                .rating(review.getRating())
+                .comment(review.getComment())
+                .doctorRating(doctorRating)
+                .doctorTotalRatings(doctorTotalRatings)
+                .createdAt(review.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,10 @@
+package com.medicare.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booked slot became free again, by cancellation or because the appointment was
+ * moved. Published inside the transaction that frees it.
+ */
+public record SlotFreedEvent(Long doctorId, LocalDateTime slot) {
+}
@@ -0,0 +1,428 @@
+package com.medicare.service;
+
+import com.medicare.cache.CacheInvalidationMessage;
+import com.medicare.cache.CacheInvalidationTransport;
+import com.medicare.dto.AppointmentDTO;
+import com.medicare.dto.WaitlistDTO;
+import com.medicare.exception.BadRequestException;
+import com.medicare.exception.ResourceNotFoundException;
+import com.medicare.exception.SlotUnavailableException;
+import com.medicare.model.Doctor;
+import com.medicare.model.User;
+import com.medicare.model.WaitlistEntry;
+import com.medicare.model.enums.AppointmentType;
+import com.medicare.model.enums.WaitlistStatus;
+import com.medicare.repository.AppointmentRepository;
+import com.medicare.repository.DoctorRepository;
+import com.medicare.repository.UserRepository;
+import com.medicare.repository.WaitlistEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Per-doctor waitlist that backfills freed slots. Waiting entries are indexed in
+ * memory under every (doctor, day) their window touches, each bucket ordered by
+ * priority (emergencies first, then first come, first served), so a freed slot only
+ * looks at the waiters for that doctor and day and takes the first whose window
+ * covers it.
+ *
+ * The database stays the source of truth: an entry is claimed with a status
+ * compare-and-set before booking, so a withdrawal or another node racing for the
+ * same waiter cannot double-book it. An entry left in BOOKING by a node that failed
+ * between booking and marking it is settled by the periodic expiry pass.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WaitlistService {
+    
+    static final String CACHE_NAME = "waitlist";
+    private static final Comparator<Waiter> PRIORITY = Comparator
+            .comparing((Waiter waiter) -> waiter.type() != AppointmentType.EMERGENCY)
+            .thenComparing(Waiter::createdAt)
+            .thenComparing(Waiter::id);
+    
+    private final WaitlistEntryRepository waitlistRepository;
+    private final DoctorRepository doctorRepository;
+    private final UserRepository userRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentService appointmentService;
+    private final EmailService emailService;
+    private final CacheInvalidationTransport invalidationTransport;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${waitlist.max-window-days:14}")
+    private int maxWindowDays;
+    
+    @Value("${waitlist.max-entries-per-patient:5}")
+    private int maxEntriesPerPatient;
+    
+    @Value("${waitlist.stale-booking-minutes:5}")
+    private long staleBookingMinutes;
+    
+    private final Map<DayKey, NavigableSet<Waiter>> byDay = new HashMap<>();
+    private final Map<Long, Waiter> waiters = new HashMap<>();
+    private Counter backfilled;
+    
+    @PostConstruct
+    void init() {
+        backfilled = Counter.builder("waitlist.backfilled")
+                .description("Freed slots booked for a waiting patient")
+                .register(meterRegistry);
+        Gauge.builder("waitlist.waiting", this, WaitlistService::size)
+                .description("Waitlist entries held in the backfill index")
+                .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        invalidationTransport.subscribe(this::onInvalidation);
+        rebuild();
+    }
+    
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        recoverStaleBookings(now);
+        waitlistRepository.expire(now);
+        List<WaitlistEntry> entries = waitlistRepository.findByStatusAndWindowEndAfter(WaitlistStatus.WAITING, now);
+        synchronized (this) {
+            byDay.clear();
+            waiters.clear();
+            entries.forEach(entry -> add(Waiter.of(entry)));
+        }
+        log.info("Waitlist index built with {} entries", entries.size());
+    }
+    
+    @Transactional
+    public WaitlistDTO.Response join(WaitlistDTO.JoinRequest request, String email) {
+        User patient = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Doctor doctor = doctorRepository.findById(request.getDoctorId())
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found"));
+        if (!Boolean.TRUE.equals(doctor.getIsActive())) {
+            throw new BadRequestException("Doctor is not accepting appointments");
+        }
+        if (!request.getWindowEnd().isAfter(request.getWindowStart())) {
+            throw new BadRequestException("Window end must be after window start");
+        }
+        if (request.getWindowStart().plusDays(maxWindowDays).isBefore(request.getWindowEnd())) {
+            throw new BadRequestException("Waitlist windows can span at most " + maxWindowDays + " days");
+        }
+        if (waitlistRepository.existsByPatientIdAndDoctorIdAndStatus(
+                patient.getId(), doctor.getId(), WaitlistStatus.WAITING)) {
+            throw new BadRequestException("Already on this doctor's waitlist");
+        }
+        if (waitlistRepository.countByPatientIdAndStatus(patient.getId(), WaitlistStatus.WAITING)
+                >= maxEntriesPerPatient) {
+            throw new BadRequestException("At most " + maxEntriesPerPatient + " waitlist entries are allowed");
+        }
+        
+        WaitlistEntry entry = WaitlistEntry.builder()
+                .patient(patient)
+                .doctor(doctor)
+                .windowStart(request.getWindowStart())
+                .windowEnd(request.getWindowEnd())
+                .appointmentType(request.getAppointmentType())
+                .symptoms(request.getSymptoms())
+                .status(WaitlistStatus.WAITING)
+                .build();
+        entry = waitlistRepository.save(entry);
+        
+        Waiter waiter = Waiter.of(entry);
+        afterCommit(() -> {
+            synchronized (this) {
+                add(waiter);
+            }
+            publish(waiter.id());
+        });
+        log.info("Patient {} joined the waitlist of doctor {}", patient.getId(), doctor.getId());
+        return mapToResponse(entry);
+    }
+    
+    @Transactional
+    public void withdraw(Long id, String email) {
+        WaitlistEntry entry = waitlistRepository.findWithPartiesById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry not found"));
+        if (!entry.getPatient().getEmail().equals(email)) {
+            throw new AccessDeniedException("Not allowed to change this waitlist entry");
+        }
+        if (entry.getStatus() != WaitlistStatus.WAITING) {
+            throw new BadRequestException("Waitlist entry is no longer waiting");
+        }
+        entry.setStatus(WaitlistStatus.WITHDRAWN);
+        waitlistRepository.save(entry);
+        afterCommit(() -> {
+            synchronized (this) {
+                remove(id);
+            }
+            publish(id);
+        });
+    }
+    
+    @Transactional(readOnly = true)
+    public List<WaitlistDTO.Response> getMyEntries(String email) {
+        User patient = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return waitlistRepository.findByPatientIdOrderByCreatedAtDesc(patient.getId()).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Runs after the freeing transaction commits, off the request thread, so the
+     * cancelling user does not wait for the backfill.
+     */
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotFreed(SlotFreedEvent event) {
+        try {
+            backfill(event.doctorId(), event.slot());
+        } catch (RuntimeException e) {
+            log.error("Waitlist backfill failed for doctor {} at {}", event.doctorId(), event.slot(), e);
+        }
+    }
+    
+    void backfill(Long doctorId, LocalDateTime slot) {
+        if (!slot.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        Waiter waiter;
+        while ((waiter = take(doctorId, slot)) != null) {
+            if (waitlistRepository.transition(waiter.id(), WaitlistStatus.WAITING, WaitlistStatus.BOOKING) == 0) {
+                // Withdrawn, or claimed on another node
+                continue;
+            }
+            publish(waiter.id());
+            
+            AppointmentDTO.CreateRequest request = AppointmentDTO.CreateRequest.builder()
+                    .doctorId(doctorId)
+                    .appointmentDateTime(slot)
+                    .appointmentType(waiter.type())
+                    .symptoms(waiter.symptoms())
+                    .build();
+            AppointmentDTO.Response appointment;
+            try {
+                appointment = appointmentService.bookAppointment(request, waiter.patientEmail());
+            } catch (ResourceNotFoundException e) {
+                // The patient account is gone; drop the entry and offer the slot onward
+                waitlistRepository.transition(waiter.id(), WaitlistStatus.BOOKING, WaitlistStatus.WITHDRAWN);
+                publish(waiter.id());
+                continue;
+            } catch (SlotUnavailableException | BadRequestException e) {
+                // The slot was taken directly, or the doctor stopped taking bookings
+                log.debug("Waitlist backfill for doctor {} at {} stopped: {}", doctorId, slot, e.getMessage());
+                restore(waiter);
+                return;
+            } catch (RuntimeException e) {
+                restore(waiter);
+                throw e;
+            }
+            
+            // The appointment is committed, so the entry must never go back to WAITING from here
+            try {
+                waitlistRepository.markBooked(waiter.id(), appointment.getId());
+            } catch (RuntimeException e) {
+                log.warn("Waitlist entry {} left in BOOKING for the expiry pass to settle", waiter.id(), e);
+            }
+            publish(waiter.id());
+            backfilled.increment();
+            emailService.sendWaitlistBooking(waiter.patientEmail(), appointment.getPatientName(),
+                    appointment.getDoctorName(), slot.toString());
+            log.info("Waitlist entry {} backfilled doctor {} at {}", waiter.id(), doctorId, slot);
+            return;
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${waitlist.expiry-interval-ms:300000}")
+    public void expireStale() {
+        LocalDateTime now = LocalDateTime.now();
+        recoverStaleBookings(now);
+        int expired = waitlistRepository.expire(now);
+        synchronized (this) {
+            waiters.values().stream()
+                    .filter(waiter -> !waiter.windowEnd().isAfter(now))
+                    .map(Waiter::id)
+                    .toList()
+                    .forEach(this::remove);
+        }
+        if (expired > 0) {
+            log.info("Expired {} waitlist entries", expired);
+        }
+    }
+    
+    /**
+     * Settles entries stuck in BOOKING for longer than any booking takes. An entry whose
+     * patient got an appointment with the doctor inside the window since joining becomes
+     * BOOKED; any other goes back to WAITING, and the expiry pass that follows retires it
+     * if its window has closed.
+     */
+    private void recoverStaleBookings(LocalDateTime now) {
+        List<WaitlistEntry> stale = waitlistRepository.findByStatusAndUpdatedAtBefore(
+                WaitlistStatus.BOOKING, now.minusMinutes(staleBookingMinutes));
+        for (WaitlistEntry entry : stale) {
+            Optional<Long> appointmentId = appointmentRepository.findIdsCreatedSince(entry.getPatient().getId(),
+                    entry.getDoctor().getId(), entry.getWindowStart(), entry.getWindowEnd(), entry.getCreatedAt())
+                    .stream()
+                    .findFirst();
+            if (appointmentId.isPresent()) {
+                if (waitlistRepository.markBooked(entry.getId(), appointmentId.get()) == 1) {
+                    log.info("Stale waitlist entry {} settled as booked ({})", entry.getId(), appointmentId.get());
+                    publish(entry.getId());
+                }
+            } else if (waitlistRepository.transition(entry.getId(),
+                    WaitlistStatus.BOOKING, WaitlistStatus.WAITING) == 1) {
+                log.info("Stale waitlist entry {} put back on the waitlist", entry.getId());
+                if (entry.getWindowEnd().isAfter(now)) {
+                    synchronized (this) {
+                        add(Waiter.of(entry));
+                    }
+                }
+                publish(entry.getId());
+            }
+        }
+    }
+    
+    private void restore(Waiter waiter) {
+        if (waitlistRepository.transition(waiter.id(), WaitlistStatus.BOOKING, WaitlistStatus.WAITING) == 1) {
+            synchronized (this) {
+                add(waiter);
+            }
+            publish(waiter.id());
+        }
+    }
+    
+    /**
+     * Removes and returns the highest-priority waiter for this doctor whose window
+     * covers the slot.
+     */
+    private synchronized Waiter take(Long doctorId, LocalDateTime slot) {
+        NavigableSet<Waiter> bucket = byDay.get(new DayKey(doctorId, slot.toLocalDate()));
+        if (bucket == null) {
+            return null;
+        }
+        for (Waiter waiter : bucket) {
+            if (waiter.covers(slot)) {
+                remove(waiter.id());
+                return waiter;
+            }
+        }
+        return null;
+    }
+    
+    private void add(Waiter waiter) {
+        remove(waiter.id());
+        waiters.put(waiter.id(), waiter);
+        for (LocalDate day : waiter.days()) {
+            byDay.computeIfAbsent(new DayKey(waiter.doctorId(), day), key -> new TreeSet<>(PRIORITY)).add(waiter);
+        }
+    }
+    
+    private void remove(Long id) {
+        Waiter waiter = waiters.remove(id);
+        if (waiter == null) {
+            return;
+        }
+        for (LocalDate day : waiter.days()) {
+            DayKey key = new DayKey(waiter.doctorId(), day);
+            NavigableSet<Waiter> bucket = byDay.get(key);
+            if (bucket != null && bucket.remove(waiter) && bucket.isEmpty()) {
+                byDay.remove(key);
+            }
+        }
+    }
+    
+    private synchronized int size() {
+        return waiters.size();
+    }
+    
+    private void publish(Long id) {
+        invalidationTransport.publish(new CacheInvalidationMessage(invalidationTransport.getNodeId(), CACHE_NAME, id));
+    }
+    
+    private void onInvalidation(CacheInvalidationMessage message) {
+        if (CacheInvalidationMessage.ALL_CACHES.equals(message.cacheName())) {
+            rebuild();
+        } else if (CACHE_NAME.equals(message.cacheName()) && message.key() instanceof Long id) {
+            // Another node changed this entry; pick up its current state
+            Optional<WaitlistEntry> entry = waitlistRepository.findWithPartiesById(id)
+                    .filter(e -> e.getStatus() == WaitlistStatus.WAITING)
+                    .filter(e -> e.getWindowEnd().isAfter(LocalDateTime.now()));
+            synchronized (this) {
+                entry.ifPresentOrElse(e -> add(Waiter.of(e)), () -> remove(id));
+            }
+        }
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    private WaitlistDTO.Response mapToResponse(WaitlistEntry entry) {
+        return WaitlistDTO.Response.builder()
+                .id(entry.getId())
+                .doctorId(entry.getDoctor().getId())
+                .doctorName(entry.getDoctor().getUser().getFullName())
+                .windowStart(entry.getWindowStart())
+                .windowEnd(entry.getWindowEnd())
+                .appointmentType(entry.getAppointmentType())
+                .status(entry.getStatus())
+                .appointmentId(entry.getAppointmentId())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+    
+    private record DayKey(Long doctorId, LocalDate date) {
+    }
+    
+    private record Waiter(Long id, Long doctorId, String patientEmail, LocalDateTime windowStart,
+                          LocalDateTime windowEnd, AppointmentType type, String symptoms, LocalDateTime createdAt) {
+        
+        static Waiter of(WaitlistEntry entry) {
+            return new Waiter(entry.getId(), entry.getDoctor().getId(), entry.getPatient().getEmail(),
+                    entry.getWindowStart(), entry.getWindowEnd(), entry.getAppointmentType(),
+                    entry.getSymptoms(), entry.getCreatedAt());
+        }
+        
+        boolean covers(LocalDateTime slot) {
+            return !slot.isBefore(windowStart) && slot.isBefore(windowEnd);
+        }
+        
+        List<LocalDate> days() {
+            List<LocalDate> days = new ArrayList<>();
+            LocalDate last = windowEnd.minusNanos(1).toLocalDate();
+            for (LocalDate day = windowStart.toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+                days.add(day);
+            }
+            return days;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.medicare.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit in the style of Netflix's gradient limiter. A fast
+ * moving average of request latency is compared against a slow one; when recent
+ * latency rises above the long-term trend the limit shrinks proportionally, and
+ * while latency holds steady it grows by a small queue allowance.
+ */
+public class GradientLimiter {
+    
+    private static final double SHORT_WINDOW_ALPHA = 0.1;
+    private static final double LONG_WINDOW_ALPHA = 0.01;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    
+    private double shortRtt;
+    private double longRtt;
+    
+    public GradientLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+    }
+    
+    /**
+     * Reserves a slot for a request. Callers that get {@code true} must call
+     * {@link #release(long)} when the request completes.
+     */
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > (int) limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+    
+    public void release(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightAtCompletion);
+    }
+    
+    private synchronized void onSample(long rttNanos, int inFlightAtCompletion) {
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt = shortRtt * (1 - SHORT_WINDOW_ALPHA) + rttNanos * SHORT_WINDOW_ALPHA;
+        longRtt = longRtt * (1 - LONG_WINDOW_ALPHA) + rttNanos * LONG_WINDOW_ALPHA;
+        
+        // After a sustained latency shift, pull the baseline along so the limit can recover
+        if (longRtt / shortRtt > 2) {
+            longRtt = longRtt * 0.95;
+        }
+        
+        // Only grow when the limit is actually being used
+        if (inFlightAtCompletion < limit / 2) {
+            return;
+        }
+        
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+    
+    public int getLimit() {
+        return (int) limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -1,22 +1,44 @@
 package com.medicare.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.medicare.model.User;
+import com.medicare.model.enums.UserRole;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
+@RequiredArgsConstructor
 public class JwtUtil {
     
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_EPOCH = "epoch";
+    
+    private final MeterRegistry meterRegistry;
+    
     @Value("${jwt.secret}")
     private String secret;
     
@@ -26,8 +48,31 @@ public class JwtUtil {
     @Value("${jwt.refresh.expiration}")
     private Long refreshExpiration;
     
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+    
+    private Key signingKey;
+    private JwtParser parser;
+    
+    // Verified claims keyed by a SHA-256 digest of the token, dropped once the token expires
+    private Cache<String, Claims> verifiedClaims;
+    
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedClaims, "jwtClaims", "cache.manager", "jwtUtil");
+    }
+    
     private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
     }
     
     public String extractUsername(String token) {
@@ -38,17 +83,32 @@ public class JwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
     
+    public Long extractUserId(String token) {
+        return extractClaim(token, claims -> toLong(claims.get(CLAIM_USER_ID)));
+    }
+    
+    public UserRole extractRole(String token) {
+        String role = extractClaim(token, claims -> claims.get(CLAIM_ROLE, String.class));
+        return role != null ? UserRole.valueOf(role) : null;
+    }
+    
+    public Long extractSecurityEpoch(String token) {
+        return extractClaim(token, claims -> toLong(claims.get(CLAIM_EPOCH)));
+    }
+    
+    public boolean hasPrincipalClaims(String token) {
+        return extractClaim(token, claims -> claims.get(CLAIM_USER_ID) != null
+                && claims.get(CLAIM_ROLE) != null
+                && claims.get(CLAIM_EPOCH) != null);
+    }
+    
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return verifiedClaims.get(digest(token), key -> parser.parseClaimsJws(token).getBody());
     }
     
     private Boolean isTokenExpired(String token) {
@@ -65,6 +125,22 @@ public class JwtUtil {
         return createToken(claims, userDetails.getUsername(), refreshExpiration);
     }
     
+    public String generateToken(User user) {
+        return createToken(principalClaims(user), user.getEmail(), expiration);
+    }
+    
+    public String generateRefreshToken(User user) {
+        return createToken(principalClaims(user), user.getEmail(), refreshExpiration);
+    }
+    
+    private Map<String, Object> principalClaims(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_EPOCH, user.getSecurityEpoch());
+        return claims;
+    }
+    
     private String createToken(Map<String, Object> claims, String subject, Long expiration) {
         return Jwts.builder()
                 .setClaims(claims)
@@ -79,4 +155,46 @@ public class JwtUtil {
         final String username = extractUsername(token);
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
+    
+    public Boolean validateToken(String token, User user) {
+        final String username = extractUsername(token);
+        return (username.equals(user.getEmail()) && !isTokenExpired(token));
+    }
+    
+    private static Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+    
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static class TokenExpiry implements Expiry<String, Claims> {
+        
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date exp = claims.getExpiration();
+            if (exp == null) {
+                return 0;
+            }
+            long remainingMillis = exp.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
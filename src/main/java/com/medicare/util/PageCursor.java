@@ -0,0 +1,58 @@
+package com.medicare.util;
+
+import com.medicare.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset cursors: the sort key values of the last row returned, plus the id as
+ * a tie-breaker, tagged with the listing they belong to and Base64url encoded. Clients
+ * pass nextCursor back unchanged together with the same filters.
+ */
+public final class PageCursor {
+    
+    private static final String SEPARATOR = "|";
+    
+    private PageCursor() {
+    }
+    
+    public static String encode(String kind, Object... values) {
+        StringJoiner joiner = new StringJoiner(SEPARATOR);
+        joiner.add(kind);
+        for (Object value : values) {
+            joiner.add(String.valueOf(value));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Returns the encoded values, without the kind.
+     */
+    public static String[] decode(String cursor, String kind, int valueCount) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (parts.length != valueCount + 1 || !parts[0].equals(kind)) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        String[] values = new String[valueCount];
+        System.arraycopy(parts, 1, values, 0, valueCount);
+        return values;
+    }
+    
+    public static <T> T parse(String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.medicare.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts SQL statements prepared by Hibernate on the current thread. Registered via
+ * hibernate.session_factory.statement_inspector so hot paths can report how many
+ * queries a single operation cost.
+ */
+public class QueryCountInspector implements StatementInspector {
+    
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+    
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+    
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+    
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,27 @@
+package com.medicare.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed pool of locks shared out by key hash. Work on the same key is serialized
+ * while unrelated keys mostly land on different stripes, without holding one lock
+ * object per key.
+ */
+public class StripedLocks {
+    
+    private final ReentrantLock[] stripes;
+    
+    public StripedLocks(int stripeCount) {
+        stripes = new ReentrantLock[Math.max(stripeCount, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+    
+    public ReentrantLock forKey(Object key) {
+        int hash = key.hashCode();
+        // Spread the high bits so sequential ids do not cluster
+        hash ^= (hash >>> 16);
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+}
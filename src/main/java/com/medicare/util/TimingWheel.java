@@ -0,0 +1,151 @@
+package com.medicare.util;
+
+import java.util.*;
+
+/**
+ * Hierarchical timing wheel. Level 0 has one bucket per tick; each higher level has
+ * buckets {@code wheelSize} times wider, so a timer sits in the coarsest level that
+ * still separates it from now and is cascaded down a level each time the wheel
+ * reaches its bucket. Scheduling and cancelling are O(1), and advancing costs one
+ * bucket visit per elapsed tick plus the timers that move or expire.
+ *
+ * Timers are keyed, so scheduling an existing key replaces it. Not thread-safe.
+ */
+public class TimingWheel<K, V> {
+    
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] spans;
+    private final List<List<Set<Timer<K, V>>>> levels = new ArrayList<>();
+    private final Map<K, Timer<K, V>> timers = new HashMap<>();
+    private long currentTick;
+    
+    public TimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levelCount];
+        long span = 1;
+        for (int level = 0; level < levelCount; level++) {
+            spans[level] = span;
+            List<Set<Timer<K, V>>> buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new LinkedHashSet<>());
+            }
+            levels.add(buckets);
+            span = Math.multiplyExact(span, wheelSize);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+    
+    /**
+     * Farthest a deadline may lie beyond the wheel's current time.
+     */
+    public long horizonMillis() {
+        return (spans[spans.length - 1] * wheelSize - 1) * tickMillis;
+    }
+    
+    /**
+     * Adds or replaces the timer for a key. Returns false, without scheduling, when the
+     * deadline is not after the current tick; the caller should treat it as due.
+     */
+    public boolean schedule(K key, long deadlineMillis, V value) {
+        cancel(key);
+        Timer<K, V> timer = new Timer<>(key, deadlineMillis / tickMillis, value);
+        if (!place(timer)) {
+            return false;
+        }
+        timers.put(key, timer);
+        return true;
+    }
+    
+    public V cancel(K key) {
+        Timer<K, V> timer = timers.remove(key);
+        if (timer == null) {
+            return null;
+        }
+        timer.bucket.remove(timer);
+        return timer.value;
+    }
+    
+    public boolean contains(K key) {
+        return timers.containsKey(key);
+    }
+    
+    public int size() {
+        return timers.size();
+    }
+    
+    /**
+     * Moves the wheel forward to the given time and returns the values of every timer
+     * that came due, in deadline order.
+     */
+    public List<V> advance(long nowMillis) {
+        List<V> due = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Coarse levels first, so cascaded timers land in this tick's bucket in time
+            for (int level = spans.length - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    cascade(level);
+                }
+            }
+            Set<Timer<K, V>> bucket = levels.get(0).get(index(0, currentTick));
+            for (Timer<K, V> timer : bucket) {
+                timers.remove(timer.key);
+                due.add(timer.value);
+            }
+            bucket.clear();
+        }
+        return due;
+    }
+    
+    private void cascade(int level) {
+        Set<Timer<K, V>> bucket = levels.get(level).get(index(level, currentTick));
+        List<Timer<K, V>> moving = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Timer<K, V> timer : moving) {
+            // Not yet due on the tick that is being entered: expires with that tick's bucket
+            if (timer.deadlineTick == currentTick) {
+                Set<Timer<K, V>> current = levels.get(0).get(index(0, currentTick));
+                current.add(timer);
+                timer.bucket = current;
+            } else {
+                place(timer);
+            }
+        }
+    }
+    
+    private boolean place(Timer<K, V> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        if (delta <= 0) {
+            return false;
+        }
+        for (int level = 0; level < spans.length; level++) {
+            if (delta < spans[level] * wheelSize) {
+                Set<Timer<K, V>> bucket = levels.get(level).get(index(level, timer.deadlineTick));
+                bucket.add(timer);
+                timer.bucket = bucket;
+                return true;
+            }
+        }
+        throw new IllegalArgumentException("Deadline is beyond the wheel's horizon of " + horizonMillis() + " ms");
+    }
+    
+    private int index(int level, long tick) {
+        return (int) Math.floorMod(tick / spans[level], (long) wheelSize);
+    }
+    
+    private static final class Timer<K, V> {
+        private final K key;
+        private final long deadlineTick;
+        private final V value;
+        private Set<Timer<K, V>> bucket;
+        
+        private Timer(K key, long deadlineTick, V value) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+            this.value = value;
+        }
+    }
+}
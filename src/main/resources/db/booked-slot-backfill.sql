@@ -0,0 +1,44 @@
+-- Fills appointments.booked_slot on databases that predate it, so the unique
+-- (doctor_id, booked_slot) constraint and the slot lookups see existing live
+-- bookings. Runs before Hibernate on every start and only touches live rows whose
+-- booked_slot is still null, so it is a no-op once the data is migrated.
+--
+-- The column is added here when missing, so the backfill lands before Hibernate
+-- builds uk_appointments_doctor_slot. A slot that already holds several live
+-- bookings would keep that constraint from building: only its oldest booking takes
+-- the slot, and the others are reported on every start until they are cancelled or
+-- rescheduled.
+DO $$
+DECLARE
+    clash RECORD;
+BEGIN
+    IF to_regclass('appointments') IS NULL THEN
+        RETURN;
+    END IF;
+    ALTER TABLE appointments ADD COLUMN IF NOT EXISTS booked_slot TIMESTAMP(6);
+
+    FOR clash IN
+        SELECT doctor_id, appointment_date_time, MIN(id) AS holder,
+               string_agg(id::TEXT, ', ' ORDER BY id) AS ids
+        FROM appointments
+        WHERE status NOT IN ('CANCELLED', 'NO_SHOW')
+        GROUP BY doctor_id, appointment_date_time
+        HAVING COUNT(*) > 1
+    LOOP
+        RAISE WARNING 'Appointments % of doctor % share the slot %; only % holds it, cancel or reschedule the others',
+                clash.ids, clash.doctor_id, clash.appointment_date_time, clash.holder;
+    END LOOP;
+
+    UPDATE appointments a
+    SET booked_slot = a.appointment_date_time
+    WHERE a.booked_slot IS NULL
+      AND a.status NOT IN ('CANCELLED', 'NO_SHOW')
+      AND a.id = (SELECT MIN(b.id) FROM appointments b
+                  WHERE b.doctor_id = a.doctor_id
+                    AND b.appointment_date_time = a.appointment_date_time
+                    AND b.status NOT IN ('CANCELLED', 'NO_SHOW'))
+      AND NOT EXISTS (SELECT 1 FROM appointments c
+                      WHERE c.doctor_id = a.doctor_id
+                        AND c.booked_slot = a.appointment_date_time);
+END
+$$^;
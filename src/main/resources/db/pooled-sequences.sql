@@ -0,0 +1,31 @@
+-- Moves tables created with identity ids onto the pooled sequences BaseEntity now
+-- uses. Runs before Hibernate on every start and only touches tables that exist
+-- and have no sequence yet, so it is a no-op on fresh and already migrated
+-- databases. Statements are separated by ^; (see spring.sql.init.separator).
+--
+-- Hibernate's pooled optimizer treats a sequence value as the top of a block of
+-- 50 ids, so a sequence must start at least 50 above the highest existing id.
+DO $$
+DECLARE
+    mapping TEXT[];
+    max_id BIGINT;
+BEGIN
+    FOREACH mapping SLICE 1 IN ARRAY ARRAY[
+            ['users', 'user_seq'],
+            ['doctors', 'doctor_seq'],
+            ['doctor_schedules', 'doctor_schedule_seq'],
+            ['appointments', 'appointment_seq'],
+            ['medical_records', 'medical_record_seq'],
+            ['reviews', 'review_seq'],
+            ['waitlist_entries', 'waitlist_entry_seq']]
+    LOOP
+        CONTINUE WHEN to_regclass(mapping[1]) IS NULL OR to_regclass(mapping[2]) IS NOT NULL;
+        EXECUTE format('SELECT MAX(id) FROM %I', mapping[1]) INTO max_id;
+        EXECUTE format('CREATE SEQUENCE %I START WITH %s INCREMENT BY 50',
+                mapping[2], CASE WHEN max_id IS NULL THEN 1 ELSE max_id + 50 END);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', mapping[1]);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', mapping[1]);
+        RAISE NOTICE 'Moved % onto sequence %', mapping[1], mapping[2];
+    END LOOP;
+END
+$$^;
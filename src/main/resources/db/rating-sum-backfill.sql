@@ -0,0 +1,17 @@
+-- Seeds doctors.rating_sum from the rating and review count a doctor already had
+-- before the column existed, so the first new review extends the real average
+-- instead of restarting it from zero. Runs before Hibernate on every start; a doctor
+-- with ratings always has a positive sum afterwards, so it is a no-op once migrated.
+DO $$
+BEGIN
+    IF to_regclass('doctors') IS NULL THEN
+        RETURN;
+    END IF;
+    ALTER TABLE doctors ADD COLUMN IF NOT EXISTS rating_sum BIGINT NOT NULL DEFAULT 0;
+
+    UPDATE doctors
+    SET rating_sum = ROUND(rating * total_ratings)::BIGINT
+    WHERE rating_sum = 0
+      AND total_ratings > 0;
+END
+$$^;
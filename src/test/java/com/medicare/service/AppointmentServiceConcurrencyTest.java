@@ -0,0 +1,184 @@
+package com.medicare.service;
+
+import com.medicare.dto.AppointmentDTO;
+import com.medicare.exception.ServiceUnavailableException;
+import com.medicare.exception.SlotUnavailableException;
+import com.medicare.model.Doctor;
+import com.medicare.model.DoctorSchedule;
+import com.medicare.model.User;
+import com.medicare.model.enums.AppointmentType;
+import com.medicare.model.enums.Specialization;
+import com.medicare.model.enums.UserRole;
+import com.medicare.repository.AppointmentRepository;
+import com.medicare.repository.DoctorRepository;
+import com.medicare.repository.DoctorScheduleRepository;
+import com.medicare.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires thousands of parallel bookings at a handful of hot slots of one doctor: each
+ * slot must be booked exactly once, and every loser must get a clean "slot taken" or
+ * "busy, retry" answer.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentServiceConcurrencyTest {
+    
+    private static final int PATIENTS = 100;
+    private static final int ATTEMPTS = 2000;
+    private static final int THREADS = 64;
+    
+    @Autowired
+    private AppointmentService appointmentService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private DoctorRepository doctorRepository;
+    
+    @Autowired
+    private DoctorScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    
+    private Doctor doctor;
+    private List<String> patientEmails;
+    private List<LocalDateTime> hotSlots;
+    
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User doctorUser = userRepository.save(user("hot-doctor-" + run + "@example.com", UserRole.DOCTOR));
+        doctor = doctorRepository.save(Doctor.builder()
+                .user(doctorUser)
+                .specialization(Specialization.values()[0])
+                .qualification("MBBS")
+                .experienceYears(10)
+                .consultationFee(BigDecimal.valueOf(800))
+                .build());
+        List<DoctorSchedule> schedules = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            schedules.add(DoctorSchedule.builder()
+                    .doctor(doctor)
+                    .dayOfWeek(day)
+                    .startTime(LocalTime.of(9, 0))
+                    .endTime(LocalTime.of(17, 0))
+                    .build());
+        }
+        scheduleRepository.saveAll(schedules);
+        
+        patientEmails = new ArrayList<>();
+        List<User> patients = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            String email = "hot-patient-" + run + "-" + i + "@example.com";
+            patientEmails.add(email);
+            patients.add(user(email, UserRole.PATIENT));
+        }
+        userRepository.saveAll(patients);
+        
+        LocalDate day = LocalDate.now().plusDays(3);
+        hotSlots = List.of(day.atTime(10, 0), day.atTime(10, 30), day.atTime(11, 0), day.atTime(11, 30));
+    }
+    
+    @Test
+    void eachHotSlotIsBookedExactlyOnce() throws InterruptedException {
+        Map<LocalDateTime, Queue<Long>> booked = new ConcurrentHashMap<>();
+        hotSlots.forEach(slot -> booked.put(slot, new ConcurrentLinkedQueue<>()));
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < ATTEMPTS; i++) {
+            LocalDateTime slot = hotSlots.get(i % hotSlots.size());
+            String email = patientEmails.get(i % PATIENTS);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    AppointmentDTO.Response response = appointmentService.bookAppointment(request(slot), email);
+                    booked.get(slot).add(response.getId());
+                } catch (SlotUnavailableException | ServiceUnavailableException expected) {
+                    // Lost the race, or gave up waiting for the doctor's lock
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        
+        assertThat(unexpected).isEmpty();
+        for (LocalDateTime slot : hotSlots) {
+            assertThat(booked.get(slot)).as("bookings at %s", slot).hasSize(1);
+            assertThat(appointmentRepository.existsByDoctorIdAndBookedSlot(doctor.getId(), slot)).isTrue();
+        }
+    }
+    
+    @Test
+    void updateThatSendsBackTheSameTimeIsNotARescheduling() {
+        LocalDateTime slot = hotSlots.get(0);
+        String email = patientEmails.get(0);
+        AppointmentDTO.Response booked = appointmentService.bookAppointment(request(slot), email);
+        
+        AppointmentDTO.UpdateRequest update = AppointmentDTO.UpdateRequest.builder()
+                .appointmentDateTime(slot)
+                .symptoms("Still coughing")
+                .build();
+        AppointmentDTO.Response updated = appointmentService.updateAppointment(booked.getId(), update,
+                authentication(email, UserRole.PATIENT));
+        
+        assertThat(updated.getAppointmentDateTime()).isEqualTo(slot);
+        assertThat(updated.getSymptoms()).isEqualTo("Still coughing");
+    }
+    
+    private AppointmentDTO.CreateRequest request(LocalDateTime slot) {
+        return AppointmentDTO.CreateRequest.builder()
+                .doctorId(doctor.getId())
+                .appointmentDateTime(slot)
+                .appointmentType(AppointmentType.IN_PERSON)
+                .symptoms("Cough")
+                .build();
+    }
+    
+    private static User user(String email, UserRole role) {
+        return User.builder()
+                .email(email)
+                .password("not-used")
+                .fullName(email)
+                .phone("555-0100")
+                .role(role)
+                .build();
+    }
+    
+    private static Authentication authentication(String email, UserRole role) {
+        return new UsernamePasswordAuthenticationToken(email, null, List.of(new SimpleGrantedAuthority(role.name())));
+    }
+}
@@ -0,0 +1,117 @@
+package com.medicare.service;
+
+import com.medicare.repository.RateLimitBucketRepository;
+import com.medicare.service.RateLimiterService.TierLimit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs several limiter "nodes" against one H2-backed bucket table. The limiter opens
+ * its own transactions, so the test methods run without one.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DistributedRateLimiterTest {
+    
+    private static final TierLimit LIMIT = new TierLimit(10, 10, Duration.ofHours(1));
+    
+    @Autowired
+    private RateLimitBucketRepository bucketRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void singleNodeAllowsExactlyTheCapacity() {
+        DistributedRateLimiter node = node(5, 60_000);
+        String key = newKey();
+        
+        assertThat(consumeUntilRejected(node, key, 50)).isEqualTo(10);
+        assertThat(availableTokens(key)).isZero();
+    }
+    
+    @Test
+    void firstRequestCreatesTheRowAndReservesABatch() {
+        DistributedRateLimiter node = node(5, 60_000);
+        String key = newKey();
+        
+        RateLimiterService.RateLimitResult result = node.tryConsume(key, LIMIT);
+        
+        assertThat(result.allowed()).isTrue();
+        assertThat(result.remainingTokens()).isEqualTo(9);
+        assertThat(availableTokens(key)).isEqualTo(5);
+    }
+    
+    @Test
+    void reservedTokensAreNotSpentTwiceAcrossNodes() {
+        DistributedRateLimiter first = node(5, 60_000);
+        DistributedRateLimiter second = node(5, 60_000);
+        String key = newKey();
+        
+        int allowed = 0;
+        for (int i = 0; i < 20; i++) {
+            DistributedRateLimiter node = i % 2 == 0 ? first : second;
+            if (node.tryConsume(key, LIMIT).allowed()) {
+                allowed++;
+            }
+        }
+        
+        assertThat(allowed).isEqualTo(10);
+        assertThat(availableTokens(key)).isZero();
+    }
+    
+    @Test
+    void unusedTokensReturnToTheStoreWhenTheReservationExpires() {
+        DistributedRateLimiter idle = node(5, 1000);
+        DistributedRateLimiter busy = node(5, 1000);
+        String key = newKey();
+        
+        // The idle node takes one token and reserves four more it will never use
+        assertThat(idle.tryConsume(key, LIMIT).allowed()).isTrue();
+        assertThat(consumeUntilRejected(busy, key, 20)).isEqualTo(5);
+        
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(availableTokens(key)).isEqualTo(4));
+        assertThat(consumeUntilRejected(busy, key, 20)).isEqualTo(4);
+    }
+    
+    private DistributedRateLimiter node(long reservationSize, long reservationTtlMs) {
+        DistributedRateLimiter limiter = new DistributedRateLimiter(bucketRepository, transactionManager);
+        ReflectionTestUtils.setField(limiter, "reservationSize", reservationSize);
+        ReflectionTestUtils.setField(limiter, "reservationTtlMs", reservationTtlMs);
+        ReflectionTestUtils.setField(limiter, "maxBuckets", 1000L);
+        limiter.init();
+        return limiter;
+    }
+    
+    private int consumeUntilRejected(DistributedRateLimiter node, String key, int maxAttempts) {
+        int allowed = 0;
+        for (int i = 0; i < maxAttempts; i++) {
+            if (!node.tryConsume(key, LIMIT).allowed()) {
+                break;
+            }
+            allowed++;
+        }
+        return allowed;
+    }
+    
+    private long availableTokens(String key) {
+        return bucketRepository.findById(key).orElseThrow().getAvailableTokens();
+    }
+    
+    private static String newKey() {
+        return "test:" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,133 @@
+package com.medicare.service;
+
+import com.medicare.dto.DoctorDTO;
+import com.medicare.dto.PageResponse;
+import com.medicare.model.Doctor;
+import com.medicare.model.DoctorSchedule;
+import com.medicare.model.User;
+import com.medicare.model.enums.Specialization;
+import com.medicare.model.enums.UserRole;
+import com.medicare.repository.DoctorRepository;
+import com.medicare.repository.DoctorScheduleRepository;
+import com.medicare.repository.UserRepository;
+import com.medicare.util.QueryCountInspector;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the doctor listing against N+1 loading: a page must cost the same number of
+ * statements whatever its size. Counted both by Hibernate statistics and by
+ * {@link QueryCountInspector}, with every cache cleared before each measurement.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DoctorServiceQueryCountTest {
+    
+    private static final int DOCTORS = 60;
+    
+    @Autowired
+    private DoctorService doctorService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private DoctorRepository doctorRepository;
+    
+    @Autowired
+    private DoctorScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @BeforeEach
+    void seedDoctors() {
+        for (long existing = doctorRepository.count(); existing < DOCTORS; existing++) {
+            User user = userRepository.save(User.builder()
+                    .email("query-count-" + existing + "@example.com")
+                    .password("not-used")
+                    .fullName("Doctor " + existing)
+                    .phone("555-0100")
+                    .role(UserRole.DOCTOR)
+                    .build());
+            Doctor doctor = doctorRepository.save(Doctor.builder()
+                    .user(user)
+                    .specialization(Specialization.values()[(int) (existing % Specialization.values().length)])
+                    .qualification("MBBS")
+                    .experienceYears(5)
+                    .consultationFee(BigDecimal.valueOf(500))
+                    .rating((double) (existing % 5))
+                    .build());
+            List<DoctorSchedule> schedules = new ArrayList<>();
+            for (DayOfWeek day : List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY)) {
+                schedules.add(DoctorSchedule.builder()
+                        .doctor(doctor)
+                        .dayOfWeek(day)
+                        .startTime(LocalTime.of(9, 0))
+                        .endTime(LocalTime.of(17, 0))
+                        .build());
+            }
+            scheduleRepository.saveAll(schedules);
+        }
+    }
+    
+    @Test
+    void listingPageCostsTheSameStatementsForEveryPageSize() {
+        long[] small = statementsForPage(5);
+        long[] medium = statementsForPage(20);
+        long[] large = statementsForPage(50);
+        
+        assertThat(medium).containsExactly(small);
+        assertThat(large).containsExactly(small);
+    }
+    
+    @Test
+    void listingPageMapsUsersAndSchedulesWithoutLazyLoading() {
+        PageResponse<DoctorDTO.Response> page = doctorService.getAllDoctors(0, 50, null, false,
+                new DoctorDTO.SearchFilter());
+        
+        assertThat(page.getContent()).hasSize(50);
+        assertThat(page.getContent()).allSatisfy(doctor -> assertThat(doctor.getFullName()).isNotNull());
+        assertThat(page.getContent()).anySatisfy(doctor -> assertThat(doctor.getSchedules()).isNotEmpty());
+    }
+    
+    /**
+     * Returns {Hibernate prepared statements, inspected statements} for one page.
+     */
+    private long[] statementsForPage(int size) {
+        entityManagerFactory.getCache().evictAll();
+        cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(Cache::clear);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        QueryCountInspector.reset();
+        
+        PageResponse<DoctorDTO.Response> page = doctorService.getAllDoctors(0, size, null, false,
+                new DoctorDTO.SearchFilter());
+        
+        assertThat(page.getContent()).hasSize(size);
+        return new long[]{statistics.getPrepareStatementCount(), QueryCountInspector.current()};
+    }
+}